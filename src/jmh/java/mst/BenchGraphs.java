@@ -0,0 +1,83 @@
+package mst;
+
+import java.util.*;
+
+final class BenchGraphs {
+    private BenchGraphs() {}
+
+    static final class Spec {
+        final String[] labels;
+        final int[] us;
+        final int[] vs;
+        final double[] ws;
+
+        Spec(String[] labels, int[] us, int[] vs, double[] ws) {
+            this.labels = labels;
+            this.us = us;
+            this.vs = vs;
+            this.ws = ws;
+        }
+
+        List<String> vertexList() { return Arrays.asList(labels); }
+
+        List<Edge> edgeList() {
+            List<Edge> edges = new ArrayList<>(us.length);
+            for (int e = 0; e < us.length; e++) edges.add(new Edge(labels[us[e]], labels[vs[e]], ws[e]));
+            return edges;
+        }
+
+        Graph graph() { return new Graph(vertexList(), edgeList()); }
+
+        String toJson() {
+            StringBuilder sb = new StringBuilder(us.length * 32);
+            sb.append("{\"graphs\":[{\"id\":1,\"vertices\":[");
+            for (int i = 0; i < labels.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(labels[i]);
+            }
+            sb.append("],\"edges\":[");
+            for (int e = 0; e < us.length; e++) {
+                if (e > 0) sb.append(',');
+                sb.append("{\"u\":").append(labels[us[e]])
+                        .append(",\"v\":").append(labels[vs[e]])
+                        .append(",\"w\":").append(ws[e]).append('}');
+            }
+            return sb.append("]}]}").toString();
+        }
+    }
+
+    // A random spanning tree plus random extra edges, so every graph is connected.
+    static Spec generate(int vertices, int avgDegree, String weights, long seed) {
+        Random rand = new Random(seed);
+        int m = Math.max(vertices - 1, vertices * avgDegree / 2);
+        String[] labels = new String[vertices];
+        for (int i = 0; i < vertices; i++) labels[i] = String.valueOf(i + 1);
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        double[] ws = new double[m];
+        for (int e = 0; e < m; e++) {
+            if (e < vertices - 1) {
+                us[e] = rand.nextInt(e + 1);
+                vs[e] = e + 1;
+            } else {
+                us[e] = rand.nextInt(vertices);
+                vs[e] = rand.nextInt(vertices);
+            }
+            ws[e] = weight(rand, weights);
+        }
+        return new Spec(labels, us, vs, ws);
+    }
+
+    private static double weight(Random rand, String kind) {
+        switch (kind) {
+            case "int50":
+                return rand.nextInt(50) + 1;
+            case "uniform":
+                return rand.nextDouble() * 1000;
+            case "exponential":
+                return -Math.log(1 - rand.nextDouble()) * 100;
+            default:
+                throw new IllegalArgumentException("Unknown weight distribution: " + kind);
+        }
+    }
+}
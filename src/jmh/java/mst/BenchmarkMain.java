@@ -0,0 +1,44 @@
+package mst;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/*
+ * Same as org.openjdk.jmh.Main, but a plain run also attaches the GC/allocation profiler and writes JSON results to
+ * target/jmh-result.json. Each default applies only when the command line does not set its own -prof, -rf or -rff;
+ * -h, -l, -lp and the other listing flags go to Main unchanged.
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException, IOException {
+        CommandLineOptions cmd;
+        try {
+            cmd = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams() || cmd.shouldListProfilers()
+                || cmd.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder opts = new OptionsBuilder().parent(cmd);
+        if (cmd.getProfilers().isEmpty()) opts.addProfiler(GCProfiler.class);
+        // An explicit -rf keeps JMH's own jmh-result.<format> default unless -rff names a file too.
+        if (!cmd.getResultFormat().hasValue()) {
+            opts.resultFormat(ResultFormatType.JSON);
+            if (!cmd.getResult().hasValue()) opts.result("target/jmh-result.json");
+        }
+        new Runner(opts.build()).run();
+    }
+}
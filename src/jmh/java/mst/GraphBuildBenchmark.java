@@ -0,0 +1,66 @@
+package mst;
+
+import com.google.gson.*;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GraphBuildBenchmark {
+    @Param({"1000", "10000"})
+    int vertices;
+
+    @Param({"4", "32"})
+    int avgDegree;
+
+    BenchGraphs.Spec spec;
+    List<String> vertexList;
+    List<Edge> edgeList;
+    int[] vertexIds;
+    String json;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        spec = BenchGraphs.generate(vertices, avgDegree, "int50", 42);
+        vertexList = spec.vertexList();
+        edgeList = spec.edgeList();
+        vertexIds = new int[vertices];
+        for (int i = 0; i < vertices; i++) vertexIds[i] = i;
+        json = spec.toJson();
+    }
+
+    @Benchmark
+    public Graph graphFromLists() { return new Graph(vertexList, edgeList); }
+
+    @Benchmark
+    public CsrGraph csrFromIds() {
+        return CsrGraph.fromIds(vertexIds, vertices, spec.us, spec.vs, spec.ws, spec.us.length);
+    }
+
+    @Benchmark
+    public Graph parseDom() {
+        JsonObject g = JsonParser.parseString(json).getAsJsonObject().getAsJsonArray("graphs").get(0).getAsJsonObject();
+        List<String> vs = new ArrayList<>();
+        for (JsonElement ve : g.getAsJsonArray("vertices")) vs.add(String.valueOf(ve.getAsInt()));
+        List<Edge> es = new ArrayList<>();
+        for (JsonElement ee : g.getAsJsonArray("edges")) {
+            JsonObject e = ee.getAsJsonObject();
+            es.add(new Edge(String.valueOf(e.get("u").getAsInt()), String.valueOf(e.get("v").getAsInt()), e.get("w").getAsDouble()));
+        }
+        return new Graph(vs, es);
+    }
+
+    @Benchmark
+    public Graph parseStreaming() throws IOException {
+        try (GraphReader reader = new GraphReader(new StringReader(json), "bench")) {
+            return reader.next().graph;
+        }
+    }
+}
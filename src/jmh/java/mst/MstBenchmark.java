@@ -0,0 +1,46 @@
+package mst;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MstBenchmark {
+    @Param({"1000", "10000"})
+    int vertices;
+
+    @Param({"4", "32"})
+    int avgDegree;
+
+    @Param({"int50", "uniform", "exponential"})
+    String weights;
+
+    Graph graph;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        graph = BenchGraphs.generate(vertices, avgDegree, weights, 42).graph();
+    }
+
+    @Benchmark
+    public PrimMST.Result primLazy() { return PrimMST.compute(graph); }
+
+    @Benchmark
+    public PrimMST.Result primEager() { return PrimMST.computeEager(graph); }
+
+    @Benchmark
+    public KruskalMST.Result kruskal() { return KruskalMST.compute(graph); }
+
+    @Benchmark
+    public KruskalMST.Result kruskalIndexed() { return KruskalMST.computeIndexed(graph); }
+
+    @Benchmark
+    public KruskalMST.Result kruskalFilter() { return KruskalMST.computeFilter(graph); }
+
+    @Benchmark
+    public BoruvkaMST.Result boruvka() { return BoruvkaMST.compute(graph); }
+}
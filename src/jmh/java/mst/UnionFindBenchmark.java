@@ -0,0 +1,54 @@
+package mst;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class UnionFindBenchmark {
+    @Param({"1000", "100000"})
+    int vertices;
+
+    List<String> labels;
+    int[] a;
+    int[] b;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rand = new Random(42);
+        labels = new ArrayList<>(vertices);
+        for (int i = 0; i < vertices; i++) labels.add(String.valueOf(i));
+        a = new int[vertices * 2];
+        b = new int[vertices * 2];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = rand.nextInt(vertices);
+            b[i] = rand.nextInt(vertices);
+        }
+    }
+
+    @Benchmark
+    public long stringKeyed() {
+        UnionFind uf = new UnionFind(labels);
+        for (int i = 0; i < a.length; i++) uf.union(labels.get(a[i]), labels.get(b[i]));
+        return uf.getUnions();
+    }
+
+    @Benchmark
+    public long intIndexed() {
+        IntUnionFind uf = new IntUnionFind(vertices);
+        for (int i = 0; i < a.length; i++) uf.union(a[i], b[i]);
+        return uf.getUnions();
+    }
+
+    @Benchmark
+    public long concurrent() {
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(vertices);
+        for (int i = 0; i < a.length; i++) uf.union(a[i], b[i]);
+        return uf.getUnions();
+    }
+}
@@ -0,0 +1,294 @@
+package mst;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Solves many small graphs with pooled scratch buffers that are grown once and reused across graphs.
+ * prim() and kruskal() reproduce PrimMST.compute and KruskalMST.compute exactly (tree, tie-breaks and op counts):
+ * the heap replays java.util.PriorityQueue's sift order on primitive arrays, and the union-find replays
+ * UnionFind's path compression and union by rank on int arrays. Scratch is borrowed from a shared pool rather than
+ * held per thread, so the --virtual pipeline, which runs every graph on a fresh virtual thread, still reuses it.
+ * Scratch that one large graph grew past MAX_POOLED_LENGTH is dropped rather than pooled, so a long-lived process
+ * such as MstServer does not keep its peak buffers for good.
+ */
+public class BatchSolver {
+    private static final ConcurrentLinkedDeque<Scratch> SCRATCH = new ConcurrentLinkedDeque<>();
+    // Longest scratch array (vertices, edges or heap slots) worth keeping between graphs.
+    private static final int MAX_POOLED_LENGTH = 1 << 20;
+
+    private BatchSolver() {}
+
+    // Public bulk API: trees for every graph, in input order, solved in contiguous slices on the pool.
+    public static List<PrimMST.Result> primAll(List<Graph> graphs, ForkJoinPool pool) {
+        PrimMST.Result[] out = new PrimMST.Result[graphs.size()];
+        Parallel.forEach(pool, out.length, 8, i -> out[i] = prim(graphs.get(i)));
+        return Arrays.asList(out);
+    }
+
+    public static List<KruskalMST.Result> kruskalAll(List<Graph> graphs, ForkJoinPool pool) {
+        KruskalMST.Result[] out = new KruskalMST.Result[graphs.size()];
+        Parallel.forEach(pool, out.length, 8, i -> out[i] = kruskal(graphs.get(i)));
+        return Arrays.asList(out);
+    }
+
+    // Internal to MstServer: Runner.Solved also carries the verifier results it writes.
+    static List<Runner.Solved> solveAll(List<GraphReader.Entry> batch, ForkJoinPool pool) {
+        Runner.Solved[] out = new Runner.Solved[batch.size()];
+        Parallel.forEach(pool, out.length, 8, i -> out[i] = Runner.solve(batch.get(i)));
+        return Arrays.asList(out);
+    }
+
+    public static PrimMST.Result prim(Graph g) {
+        Scratch s = acquire();
+        try {
+            return prim(g, s);
+        } finally {
+            release(s);
+        }
+    }
+
+    public static KruskalMST.Result kruskal(Graph g) {
+        Scratch s = acquire();
+        try {
+            return kruskal(g, s);
+        } finally {
+            release(s);
+        }
+    }
+
+    // Most recently returned first, so a hot scratch is the next one handed out.
+    private static Scratch acquire() {
+        Scratch s = SCRATCH.poll();
+        return s != null ? s : new Scratch();
+    }
+
+    private static void release(Scratch s) {
+        if (s.longest() <= MAX_POOLED_LENGTH) SCRATCH.push(s);
+    }
+
+    private static PrimMST.Result prim(Graph g, Scratch s) {
+        long t0 = System.nanoTime();
+
+        Map<String, Long> ops = new HashMap<>();
+        long edgeExams = 0;
+        long heapPushes = 0;
+        long heapPops = 0;
+
+        List<Edge> mst = new ArrayList<>();
+        double totalCost = 0.0;
+        if (g.V() == 0) {
+            ops.put("edge_examinations", 0L);
+            ops.put("heap_pushes", 0L);
+            ops.put("heap_pops", 0L);
+            return new PrimMST.Result(mst, totalCost, ops, 0.0);
+        }
+
+        CsrGraph csr = g.csr();
+        int n = csr.vertexCount();
+        int mark = s.nextEpoch(n);
+        int[] visited = s.stamp;
+        s.heapSize = 0;
+
+        for (int start = 0; start < n; start++) {
+            if (visited[start] == mark) continue;
+
+            visited[start] = mark;
+            for (int i = csr.begin(start), end = csr.end(start); i < end; i++) {
+                s.push(start, csr.target(i), csr.weight(csr.edgeAt(i)));
+                heapPushes++;
+            }
+
+            while (s.heapSize > 0) {
+                int from = s.hFrom[0], to = s.hTo[0];
+                double weight = s.hWeight[0];
+                s.pop();
+                heapPops++;
+                if (visited[to] == mark) continue;
+
+                visited[to] = mark;
+                mst.add(new Edge(csr.label(from), csr.label(to), weight));
+                totalCost += weight;
+
+                for (int i = csr.begin(to), end = csr.end(to); i < end; i++) {
+                    edgeExams++;
+                    int other = csr.target(i);
+                    if (visited[other] != mark) {
+                        s.push(to, other, csr.weight(csr.edgeAt(i)));
+                        heapPushes++;
+                    }
+                }
+            }
+        }
+
+        long t1 = System.nanoTime();
+        double timeMs = (t1 - t0) / 1_000_000.0;
+        Metrics.global().recordPhase(Metrics.Phase.TRAVERSAL, t0, t1);
+
+        ops.put("edge_examinations", edgeExams);
+        ops.put("heap_pushes", heapPushes);
+        ops.put("heap_pops", heapPops);
+        return new PrimMST.Result(mst, totalCost, ops, timeMs);
+    }
+
+    private static KruskalMST.Result kruskal(Graph g, Scratch s) {
+        long t0 = System.nanoTime();
+        List<Edge> edges = g.getEdges();
+        CsrGraph csr = g.csr();
+        int m = edges.size();
+        int[] order = s.order(m);
+        EdgeSort.Strategy strategy = EdgeSort.sortAdaptive(order, 0, m, csr.weightArray());
+        long tSort = System.nanoTime();
+
+        s.resetUnionFind(csr.vertexCount());
+        List<Edge> mst = new ArrayList<>();
+        long edgeConsidered = 0;
+        int target = Math.max(0, g.V() - 1);
+
+        for (int k = 0; k < m; k++) {
+            int e = order[k];
+            edgeConsidered++;
+            int ru = s.find(csr.edgeU(e));
+            int rv = s.find(csr.edgeV(e));
+            if (ru != rv && s.union(ru, rv)) mst.add(edges.get(e));
+            if (mst.size() == target) break;
+        }
+
+        long t1 = System.nanoTime();
+        Metrics.global().recordPhase(Metrics.Phase.SORT, t0, tSort);
+        Metrics.global().recordPhase(Metrics.Phase.UNION_FIND, tSort, t1);
+        double timeMs = (t1 - t0) / 1_000_000.0;
+        Map<String, Long> ops = new HashMap<>();
+        ops.put("edge_considered", edgeConsidered);
+        ops.put("find_calls", s.findCalls);
+        ops.put("unions", s.unions);
+        ops.put("sort_" + strategy.key, 1L);
+        double totalCost = mst.stream().mapToDouble(Edge::getWeight).sum();
+        return new KruskalMST.Result(mst, totalCost, ops, timeMs);
+    }
+
+    private static final class Scratch {
+        int[] stamp = new int[0];
+        int epoch = 0;
+
+        int[] hFrom = new int[16];
+        int[] hTo = new int[16];
+        double[] hWeight = new double[16];
+        int heapSize = 0;
+
+        int[] order = new int[0];
+        int[] parent = new int[0];
+        int[] rank = new int[0];
+        long findCalls;
+        long unions;
+
+        int longest() {
+            return Math.max(Math.max(stamp.length, hFrom.length), Math.max(order.length, parent.length));
+        }
+
+        // Visited marks are epoch stamps, so starting a graph never clears an array.
+        int nextEpoch(int n) {
+            if (stamp.length < n || epoch == Integer.MAX_VALUE) {
+                stamp = new int[Math.max(n, stamp.length)];
+                epoch = 0;
+            }
+            return ++epoch;
+        }
+
+        int[] order(int m) {
+            if (order.length < m) order = new int[Math.max(m, order.length * 2)];
+            for (int i = 0; i < m; i++) order[i] = i;
+            return order;
+        }
+
+        // Binary min-heap with the same sift-up/sift-down comparisons as java.util.PriorityQueue.
+        void push(int from, int to, double weight) {
+            if (heapSize == hFrom.length) {
+                int cap = heapSize * 2;
+                hFrom = Arrays.copyOf(hFrom, cap);
+                hTo = Arrays.copyOf(hTo, cap);
+                hWeight = Arrays.copyOf(hWeight, cap);
+            }
+            int k = heapSize++;
+            while (k > 0) {
+                int p = (k - 1) >>> 1;
+                if (Double.compare(weight, hWeight[p]) >= 0) break;
+                move(p, k);
+                k = p;
+            }
+            hFrom[k] = from;
+            hTo[k] = to;
+            hWeight[k] = weight;
+        }
+
+        void pop() {
+            int n = --heapSize;
+            if (n == 0) return;
+            int from = hFrom[n], to = hTo[n];
+            double weight = hWeight[n];
+            int k = 0;
+            int half = n >>> 1;
+            while (k < half) {
+                int child = 2 * k + 1;
+                int right = child + 1;
+                if (right < n && Double.compare(hWeight[child], hWeight[right]) > 0) child = right;
+                if (Double.compare(weight, hWeight[child]) <= 0) break;
+                move(child, k);
+                k = child;
+            }
+            hFrom[k] = from;
+            hTo[k] = to;
+            hWeight[k] = weight;
+        }
+
+        private void move(int src, int dst) {
+            hFrom[dst] = hFrom[src];
+            hTo[dst] = hTo[src];
+            hWeight[dst] = hWeight[src];
+        }
+
+        void resetUnionFind(int n) {
+            if (parent.length < n) {
+                parent = new int[Math.max(n, parent.length * 2)];
+                rank = new int[parent.length];
+            }
+            for (int i = 0; i < n; i++) {
+                parent[i] = i;
+                rank[i] = 0;
+            }
+            findCalls = 0;
+            unions = 0;
+        }
+
+        // Counts one call per vertex on the path, like UnionFind's recursive find, then compresses the path.
+        int find(int x) {
+            int root = x;
+            while (true) {
+                findCalls++;
+                if (parent[root] == root) break;
+                root = parent[root];
+            }
+            while (parent[x] != root && x != root) {
+                int next = parent[x];
+                parent[x] = root;
+                x = next;
+            }
+            return root;
+        }
+
+        boolean union(int a, int b) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb) return false;
+            if (rank[ra] < rank[rb]) parent[ra] = rb;
+            else if (rank[rb] < rank[ra]) parent[rb] = ra;
+            else {
+                parent[rb] = ra;
+                rank[ra]++;
+            }
+            unions++;
+            return true;
+        }
+    }
+}
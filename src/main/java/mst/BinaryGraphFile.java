@@ -0,0 +1,237 @@
+package mst;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/*
+ * Little-endian container, one record per graph until EOF:
+ *   file header:   int magic "MSTG", int version
+ *   record header: int idBytes, int vertexCount, int edgeCount, int reserved
+ *   record body:   id (UTF-8), int[V] vertex ids, int[E] u, int[E] v, double[E] w
+ * Every body section starts on an 8-byte boundary; u/v hold dense indices into the vertex id array.
+ * Each section is mapped on its own, so a section, not the whole record, must fit one 2 GiB mapping: a graph holds
+ * at most 268,435,455 edges (the weight section) and 536,870,911 vertices. Larger edge sets belong in a
+ * RawEdgeFile, which is addressed by long offsets. The mapped views cost no heap; MappedGraph.toGraph does, since it
+ * copies every section into heap arrays (about 16 bytes per edge) and builds a String label per vertex. Engines that
+ * should stay off-heap take the views through ExternalKruskal.cursor or OffHeapEdgeStore.of instead.
+ */
+public final class BinaryGraphFile {
+    static final int MAGIC = 0x4D535447;
+    static final int VERSION = 1;
+    private static final int FILE_HEADER = 8;
+    private static final int RECORD_HEADER = 16;
+
+    private BinaryGraphFile() {}
+
+    public static Path siblingOf(Path jsonPath) {
+        String name = jsonPath.getFileName().toString();
+        String base = name.endsWith(".json") ? name.substring(0, name.length() - 5) : name;
+        return jsonPath.resolveSibling(base + ".mstg");
+    }
+
+    public static void convert(Path jsonPath, Path binPath) throws IOException {
+        Path tmp = binPath.resolveSibling(binPath.getFileName() + ".tmp");
+        try (GraphReader reader = GraphReader.open(jsonPath);
+             Writer out = new Writer(tmp)) {
+            GraphReader.Entry entry;
+            while ((entry = reader.next()) != null) {
+                if (entry.points != null) {
+                    throw new IllegalArgumentException(entry.name + " is a point set; .mstg only stores edge lists");
+                }
+                out.write(entry.name, entry.graph.csr());
+            }
+        }
+        Files.move(tmp, binPath, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public static Reader open(Path binPath) throws IOException {
+        return new Reader(binPath);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: BinaryGraphFile <input.json> [output.mstg]");
+            System.exit(2);
+        }
+        Path json = Paths.get(args[0]);
+        Path bin = args.length >= 2 ? Paths.get(args[1]) : siblingOf(json);
+        convert(json, bin);
+        System.out.println("Converted " + json + " -> " + bin + " (" + Files.size(bin) + " bytes)");
+    }
+
+    private static long pad8(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+        public Writer(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buf.putInt(MAGIC).putInt(VERSION);
+        }
+
+        public void write(String name, CsrGraph csr) throws IOException {
+            byte[] id = name.getBytes(StandardCharsets.UTF_8);
+            int n = csr.vertexCount();
+            int m = csr.edgeCount();
+            ensure(RECORD_HEADER);
+            buf.putInt(id.length).putInt(n).putInt(m).putInt(0);
+            for (byte b : id) putByte(b);
+            align();
+            for (int i = 0; i < n; i++) putInt(Integer.parseInt(csr.label(i)));
+            align();
+            for (int e = 0; e < m; e++) putInt(csr.edgeU(e));
+            for (int e = 0; e < m; e++) putInt(csr.edgeV(e));
+            align();
+            for (int e = 0; e < m; e++) {
+                ensure(8);
+                buf.putDouble(csr.weight(e));
+            }
+        }
+
+        private void putByte(byte b) throws IOException {
+            ensure(1);
+            buf.put(b);
+        }
+
+        private void putInt(int x) throws IOException {
+            ensure(4);
+            buf.putInt(x);
+        }
+
+        private void align() throws IOException {
+            while ((buf.position() & 7) != 0) putByte((byte) 0);
+        }
+
+        // The buffer is only drained at 8-byte multiples, so buffer position and file offset stay aligned together.
+        private void ensure(int bytes) throws IOException {
+            if (buf.remaining() >= bytes) return;
+            int keep = buf.position() & 7;
+            buf.flip();
+            buf.limit(buf.limit() - keep);
+            while (buf.hasRemaining()) channel.write(buf);
+            buf.limit(buf.limit() + keep);
+            buf.compact();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                buf.flip();
+                while (buf.hasRemaining()) channel.write(buf);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    public static final class MappedGraph {
+        public final String name;
+        public final int vertexCount;
+        public final int edgeCount;
+        private final IntBuffer vertexIds;
+        private final IntBuffer edgeU;
+        private final IntBuffer edgeV;
+        private final DoubleBuffer weights;
+
+        MappedGraph(String name, int n, int m, ByteBuffer ids, ByteBuffer us, ByteBuffer vs, ByteBuffer ws) {
+            this.name = name;
+            this.vertexCount = n;
+            this.edgeCount = m;
+            this.vertexIds = ids.asIntBuffer();
+            this.edgeU = us.asIntBuffer();
+            this.edgeV = vs.asIntBuffer();
+            this.weights = ws.asDoubleBuffer();
+        }
+
+        // Views straight over the mapped file; callers must not keep them past Reader.close().
+        public IntBuffer vertexIds() { return vertexIds.duplicate(); }
+        public IntBuffer edgeU() { return edgeU.duplicate(); }
+        public IntBuffer edgeV() { return edgeV.duplicate(); }
+        public DoubleBuffer weights() { return weights.duplicate(); }
+
+        // Bulk-copies the mapped arrays into a heap CsrGraph with one label per vertex; no per-edge objects are made.
+        public Graph toGraph() {
+            int[] ids = new int[vertexCount];
+            vertexIds().get(ids);
+            String[] labels = new String[vertexCount];
+            for (int i = 0; i < vertexCount; i++) labels[i] = String.valueOf(ids[i]);
+            int[] us = new int[edgeCount];
+            int[] vs = new int[edgeCount];
+            double[] ws = new double[edgeCount];
+            edgeU().get(us);
+            edgeV().get(vs);
+            weights().get(ws);
+            return new Graph(new CsrGraph(labels, us, vs, ws));
+        }
+    }
+
+    public static final class Reader implements GraphSource {
+        private final FileChannel channel;
+        private final String source;
+        private long position = FILE_HEADER;
+
+        Reader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.source = path.getFileName().toString();
+            ByteBuffer header = readAt(0, FILE_HEADER);
+            if (header == null || header.getInt() != MAGIC) throw new IOException("Not an MSTG graph file: " + source);
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("Unsupported MSTG version " + version + " in " + source);
+        }
+
+        public MappedGraph nextMapped() throws IOException {
+            ByteBuffer header = readAt(position, RECORD_HEADER);
+            if (header == null) return null;
+            int idBytes = header.getInt();
+            int n = header.getInt();
+            int m = header.getInt();
+            if (idBytes < 0 || n < 0 || m < 0) throw new IOException("Corrupt record header at " + position + " in " + source);
+            if (m * 8L > Integer.MAX_VALUE) throw new IOException("Graph record too large to map (" + m + " edges) in " + source);
+            long bodyStart = position + RECORD_HEADER;
+            long idsStart = bodyStart + pad8(idBytes);
+            long usStart = idsStart + pad8(n * 4L);
+            long wsStart = usStart + pad8(m * 8L);
+            long bodyEnd = wsStart + m * 8L;
+            if (bodyEnd > channel.size()) throw new EOFException("Truncated graph record in " + source);
+
+            ByteBuffer id = idBytes == 0 ? ByteBuffer.allocate(0) : readAt(bodyStart, idBytes);
+            MappedGraph g = new MappedGraph(StandardCharsets.UTF_8.decode(id).toString(), n, m,
+                    map(idsStart, n * 4L), map(usStart, m * 4L), map(usStart + m * 4L, m * 4L), map(wsStart, m * 8L));
+            position = bodyEnd;
+            return g;
+        }
+
+        private ByteBuffer map(long at, long length) throws IOException {
+            ByteBuffer b = length == 0 ? ByteBuffer.allocate(0) : channel.map(FileChannel.MapMode.READ_ONLY, at, length);
+            return b.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        public GraphReader.Entry next() throws IOException {
+            MappedGraph g = nextMapped();
+            return g == null ? null : new GraphReader.Entry(g.name, g.toGraph());
+        }
+
+        private ByteBuffer readAt(long at, int length) throws IOException {
+            if (at >= channel.size()) return null;
+            ByteBuffer b = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+            while (b.hasRemaining()) {
+                if (channel.read(b, at + b.position()) < 0) throw new EOFException("Truncated header in " + source);
+            }
+            b.flip();
+            return b;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package mst;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class BoruvkaMST {
+    private static final int CHUNK = 4096;
+    private static final int VERTEX_GRAIN = 8192;
+
+    public static class Result {
+        public final List<Edge> mstEdges;
+        public final double totalCost;
+        public final Map<String, Long> ops;
+        public final double timeMs;
+
+        public Result(List<Edge> mstEdges, double totalCost, Map<String, Long> ops, double timeMs) {
+            this.mstEdges = mstEdges;
+            this.totalCost = totalCost;
+            this.ops = ops;
+            this.timeMs = timeMs;
+        }
+    }
+
+    public static Result compute(Graph g) {
+        return compute(g, ForkJoinPool.commonPool());
+    }
+
+    public static Result compute(Graph g, ForkJoinPool pool) {
+        long t0 = System.nanoTime();
+        CsrGraph csr = g.csr();
+        int n = csr.vertexCount();
+        int m = csr.edgeCount();
+        int[] us = csr.edgeUArray();
+        int[] vs = csr.edgeVArray();
+        double[] ws = csr.weightArray();
+
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(n);
+        AtomicIntegerArray cheapest = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) cheapest.set(i, -1);
+        int[] accepted = new int[n];
+
+        // Live edges are kept in fixed-size chunks that are compacted in place every round.
+        int chunks = (m + CHUNK - 1) / CHUNK;
+        int[] live = EdgeSort.identity(m);
+        int[] chunkLen = new int[chunks];
+        for (int c = 0; c < chunks; c++) chunkLen[c] = Math.min(CHUNK, m - c * CHUNK);
+
+        Map<String, Long> ops = new LinkedHashMap<>();
+        List<Edge> mst = new ArrayList<>(Math.max(0, n - 1));
+        double totalCost = 0.0;
+        long rounds = 0;
+        long edgesScanned = 0;
+        int components = n;
+        LongAdder scanned = new LongAdder();
+
+        while (components > 1) {
+            scanned.reset();
+            Parallel.forEach(pool, chunks, 1, c -> {
+                int base = c * CHUNK;
+                int len = chunkLen[c];
+                int kept = 0;
+                for (int i = 0; i < len; i++) {
+                    int e = live[base + i];
+                    int ru = uf.find(us[e]);
+                    int rv = uf.find(vs[e]);
+                    if (ru == rv) continue;
+                    live[base + kept++] = e;
+                    offer(cheapest, ru, e, ws);
+                    offer(cheapest, rv, e, ws);
+                }
+                chunkLen[c] = kept;
+                scanned.add(len);
+            });
+
+            Parallel.forEach(pool, n, VERTEX_GRAIN, v -> {
+                int e = cheapest.get(v);
+                accepted[v] = -1;
+                if (e < 0) return;
+                cheapest.set(v, -1);
+                if (uf.union(us[e], vs[e])) accepted[v] = e;
+            });
+
+            int merged = 0;
+            for (int v = 0; v < n; v++) {
+                int e = accepted[v];
+                if (e < 0) continue;
+                mst.add(csr.toEdge(e));
+                totalCost += ws[e];
+                merged++;
+            }
+
+            rounds++;
+            long roundScanned = scanned.sum();
+            edgesScanned += roundScanned;
+            components -= merged;
+            ops.put("round_" + rounds + "_edges_scanned", roundScanned);
+            ops.put("round_" + rounds + "_components", (long) components);
+            if (merged == 0) break;
+        }
+
+        long t1 = System.nanoTime();
+        double timeMs = (t1 - t0) / 1_000_000.0;
+        ops.put("rounds", rounds);
+        ops.put("edges_scanned", edgesScanned);
+        ops.put("components", (long) components);
+        ops.put("find_calls", uf.getFindCalls());
+        ops.put("unions", uf.getUnions());
+        ops.put("parallelism", (long) pool.getParallelism());
+        return new Result(mst, totalCost, ops, timeMs);
+    }
+
+    private static void offer(AtomicIntegerArray cheapest, int root, int e, double[] ws) {
+        while (true) {
+            int cur = cheapest.get(root);
+            if (cur >= 0 && !EdgeSort.less(e, cur, ws)) return;
+            if (cheapest.compareAndSet(root, cur, e)) return;
+        }
+    }
+}
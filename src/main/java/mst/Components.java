@@ -0,0 +1,71 @@
+package mst;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+// Connected components of a CsrGraph, numbered in order of their lowest vertex index.
+public class Components {
+    private static final int EDGE_GRAIN = 1 << 14;
+    private static final int VERTEX_GRAIN = 1 << 14;
+
+    private final int count;
+    private final int[] componentOf;
+    private final int[] offsets;
+    private final int[] members;
+    private final long findCalls;
+    private final long unions;
+
+    private Components(int count, int[] componentOf, int[] offsets, int[] members, long findCalls, long unions) {
+        this.count = count;
+        this.componentOf = componentOf;
+        this.offsets = offsets;
+        this.members = members;
+        this.findCalls = findCalls;
+        this.unions = unions;
+    }
+
+    public static Components of(CsrGraph csr) {
+        return of(csr, ForkJoinPool.commonPool());
+    }
+
+    // Unions every edge concurrently, then resolves each vertex to its root in parallel.
+    public static Components of(CsrGraph csr, ForkJoinPool pool) {
+        int n = csr.vertexCount();
+        int[] us = csr.edgeUArray();
+        int[] vs = csr.edgeVArray();
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(n);
+        Parallel.forEach(pool, us.length, EDGE_GRAIN, e -> uf.union(us[e], vs[e]));
+        int[] root = new int[n];
+        Parallel.forEach(pool, n, VERTEX_GRAIN, v -> root[v] = uf.find(v));
+
+        int[] idOfRoot = new int[n];
+        Arrays.fill(idOfRoot, -1);
+        int[] componentOf = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int r = root[v];
+            if (idOfRoot[r] < 0) idOfRoot[r] = count++;
+            componentOf[v] = idOfRoot[r];
+        }
+
+        int[] offsets = new int[count + 1];
+        for (int v = 0; v < n; v++) offsets[componentOf[v] + 1]++;
+        for (int c = 0; c < count; c++) offsets[c + 1] += offsets[c];
+        int[] members = new int[n];
+        int[] cursor = Arrays.copyOf(offsets, count);
+        for (int v = 0; v < n; v++) members[cursor[componentOf[v]]++] = v;
+        return new Components(count, componentOf, offsets, members, uf.getFindCalls(), uf.getUnions());
+    }
+
+    public int count() { return count; }
+    public int componentOf(int v) { return componentOf[v]; }
+    public int size(int c) { return offsets[c + 1] - offsets[c]; }
+
+    // Vertices of component c in increasing index order: members[begin(c)..end(c)).
+    public int begin(int c) { return offsets[c]; }
+    public int end(int c) { return offsets[c + 1]; }
+    public int member(int i) { return members[i]; }
+
+    public long getFindCalls() { return findCalls; }
+    public long getUnions() { return unions; }
+}
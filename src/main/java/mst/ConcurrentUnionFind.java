@@ -0,0 +1,47 @@
+package mst;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrentUnionFind {
+    private final AtomicIntegerArray parent;
+
+    private final LongAdder findCalls = new LongAdder();
+    private final LongAdder unions = new LongAdder();
+
+    public ConcurrentUnionFind(int n) {
+        parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) parent.set(i, i);
+    }
+
+    public int find(int x) {
+        findCalls.increment();
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) return x;
+            int gp = parent.get(p);
+            if (gp != p) parent.compareAndSet(x, p, gp);
+            x = gp;
+        }
+    }
+
+    // Roots are always linked from the lower to the higher index, so concurrent unions cannot form a cycle.
+    public boolean union(int a, int b) {
+        while (true) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb) return false;
+            int lo = Math.min(ra, rb), hi = Math.max(ra, rb);
+            if (parent.compareAndSet(lo, lo, hi)) {
+                unions.increment();
+                return true;
+            }
+        }
+    }
+
+    public boolean isRoot(int x) { return parent.get(x) == x; }
+    public int size() { return parent.length(); }
+
+    public long getFindCalls() { return findCalls.sum(); }
+    public long getUnions() { return unions.sum(); }
+}
@@ -0,0 +1,192 @@
+package mst;
+
+import java.util.*;
+
+public final class CsrGraph {
+    private final String[] labels;
+    private volatile Map<String, Integer> index;
+    private final int[] edgeU;
+    private final int[] edgeV;
+    private final double[] weights;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] adjEdges;
+
+    public CsrGraph(String[] labels, int[] edgeU, int[] edgeV, double[] weights) {
+        this(labels, null, edgeU, edgeV, weights);
+    }
+
+    private CsrGraph(String[] labels, Map<String, Integer> index, int[] edgeU, int[] edgeV, double[] weights) {
+        if (edgeU.length != edgeV.length || edgeU.length != weights.length) {
+            throw new IllegalArgumentException("Edge arrays must have the same length");
+        }
+        int n = labels.length;
+        int m = edgeU.length;
+        this.labels = labels;
+        this.index = index;
+        this.edgeU = edgeU;
+        this.edgeV = edgeV;
+        this.weights = weights;
+        this.offsets = new int[n + 1];
+        this.targets = new int[2 * m];
+        this.adjEdges = new int[2 * m];
+
+        for (int e = 0; e < m; e++) {
+            int u = edgeU[e], v = edgeV[e];
+            if (u < 0 || u >= n || v < 0 || v >= n) {
+                throw new IllegalArgumentException("Edge " + e + " uses vertex index out of range");
+            }
+            offsets[u + 1]++;
+            offsets[v + 1]++;
+        }
+        for (int i = 0; i < n; i++) offsets[i + 1] += offsets[i];
+
+        // Fill in edge order so each vertex keeps its adjacency in input order.
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < m; e++) {
+            int u = edgeU[e], v = edgeV[e];
+            targets[cursor[u]] = v;
+            adjEdges[cursor[u]++] = e;
+            targets[cursor[v]] = u;
+            adjEdges[cursor[v]++] = e;
+        }
+    }
+
+    public static CsrGraph of(List<String> vertices, List<Edge> edges) {
+        Map<String, Integer> index = new HashMap<>(vertices.size() * 2);
+        List<String> distinct = new ArrayList<>(vertices.size());
+        for (String v : vertices) {
+            if (!index.containsKey(v)) {
+                index.put(v, distinct.size());
+                distinct.add(v);
+            }
+        }
+        int m = edges.size();
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        double[] ws = new double[m];
+        for (int e = 0; e < m; e++) {
+            Edge edge = edges.get(e);
+            Integer u = index.get(edge.getU());
+            Integer v = index.get(edge.getV());
+            if (u == null || v == null) {
+                throw new IllegalArgumentException("Edge uses vertex not in vertices list: " + edge);
+            }
+            us[e] = u;
+            vs[e] = v;
+            ws[e] = edge.getWeight();
+        }
+        return new CsrGraph(distinct.toArray(new String[0]), index, us, vs, ws);
+    }
+
+    // Builds a graph over integer vertex ids; edge endpoints are given as ids and mapped to dense indices.
+    public static CsrGraph fromIds(int[] vertexIds, int n, int[] edgeU, int[] edgeV, double[] weights, int m) {
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            min = Math.min(min, vertexIds[i]);
+            max = Math.max(max, vertexIds[i]);
+        }
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        List<String> labels = new ArrayList<>(n);
+
+        if (n > 0 && (long) max - min < 4L * n + 1024) {
+            int[] table = new int[max - min + 1];
+            Arrays.fill(table, -1);
+            for (int i = 0; i < n; i++) {
+                int slot = vertexIds[i] - min;
+                if (table[slot] < 0) {
+                    table[slot] = labels.size();
+                    labels.add(String.valueOf(vertexIds[i]));
+                }
+            }
+            for (int e = 0; e < m; e++) {
+                us[e] = lookup(table, min, edgeU[e]);
+                vs[e] = lookup(table, min, edgeV[e]);
+                if (us[e] < 0 || vs[e] < 0) throw unknownVertex(edgeU[e], edgeV[e], weights[e]);
+            }
+        } else {
+            Map<Integer, Integer> index = new HashMap<>(n * 2);
+            for (int i = 0; i < n; i++) {
+                if (index.putIfAbsent(vertexIds[i], labels.size()) == null) labels.add(String.valueOf(vertexIds[i]));
+            }
+            for (int e = 0; e < m; e++) {
+                Integer u = index.get(edgeU[e]);
+                Integer v = index.get(edgeV[e]);
+                if (u == null || v == null) throw unknownVertex(edgeU[e], edgeV[e], weights[e]);
+                us[e] = u;
+                vs[e] = v;
+            }
+        }
+        double[] ws = weights.length == m ? weights : Arrays.copyOf(weights, m);
+        return new CsrGraph(labels.toArray(new String[0]), us, vs, ws);
+    }
+
+    private static int lookup(int[] table, int min, int id) {
+        long slot = (long) id - min;
+        return slot < 0 || slot >= table.length ? -1 : table[(int) slot];
+    }
+
+    private static IllegalArgumentException unknownVertex(int u, int v, double w) {
+        return new IllegalArgumentException("Edge uses vertex not in vertices list: " + new Edge(String.valueOf(u), String.valueOf(v), w));
+    }
+
+    public int vertexCount() { return labels.length; }
+    public int edgeCount() { return edgeU.length; }
+
+    public String label(int v) { return labels[v]; }
+
+    public int indexOf(String label) {
+        Map<String, Integer> idx = index;
+        if (idx == null) {
+            idx = new HashMap<>(labels.length * 2);
+            for (int i = 0; i < labels.length; i++) idx.putIfAbsent(labels[i], i);
+            index = idx;
+        }
+        Integer i = idx.get(label);
+        return i == null ? -1 : i;
+    }
+
+    public int begin(int v) { return offsets[v]; }
+    public int end(int v) { return offsets[v + 1]; }
+    public int degree(int v) { return offsets[v + 1] - offsets[v]; }
+    public int target(int slot) { return targets[slot]; }
+    public int edgeAt(int slot) { return adjEdges[slot]; }
+
+    public int edgeU(int e) { return edgeU[e]; }
+    public int edgeV(int e) { return edgeV[e]; }
+    public double weight(int e) { return weights[e]; }
+
+    int[] edgeUArray() { return edgeU; }
+    int[] edgeVArray() { return edgeV; }
+    double[] weightArray() { return weights; }
+
+    public Edge toEdge(int e) {
+        return new Edge(labels[edgeU[e]], labels[edgeV[e]], weights[e]);
+    }
+
+    public int componentCount() {
+        int n = labels.length;
+        boolean[] seen = new boolean[n];
+        int[] stack = new int[n];
+        int components = 0;
+        for (int s = 0; s < n; s++) {
+            if (seen[s]) continue;
+            components++;
+            int top = 0;
+            stack[top++] = s;
+            seen[s] = true;
+            while (top > 0) {
+                int cur = stack[--top];
+                for (int i = offsets[cur], end = offsets[cur + 1]; i < end; i++) {
+                    int w = targets[i];
+                    if (!seen[w]) {
+                        seen[w] = true;
+                        stack[top++] = w;
+                    }
+                }
+            }
+        }
+        return components;
+    }
+}
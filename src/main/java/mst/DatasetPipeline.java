@@ -0,0 +1,159 @@
+package mst;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DatasetPipeline implements Closeable {
+    private static final Future<Runner.Solved> END = CompletableFuture.completedFuture(null);
+
+    private final ExecutorService compute;
+    private final ExecutorService parse;
+    private final int threads;
+    private final int queueCapacity;
+    private boolean binaryInput = false;
+    private ResultCache cache = null;
+    private boolean spanningForest = false;
+
+    public DatasetPipeline(int threads, int queueCapacity, boolean virtualThreads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be positive: " + threads);
+        if (queueCapacity < 1) throw new IllegalArgumentException("queue capacity must be positive: " + queueCapacity);
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        ExecutorService virtual = virtualThreads ? newVirtualThreadExecutor() : null;
+        this.compute = virtual != null ? virtual : Executors.newFixedThreadPool(threads, named("mst-compute"));
+        this.parse = Executors.newCachedThreadPool(named("mst-parse"));
+    }
+
+    // Reads inputs through a .mstg binary copy that is rebuilt whenever the JSON is newer.
+    public DatasetPipeline binaryInput(boolean binaryInput) {
+        this.binaryInput = binaryInput;
+        return this;
+    }
+
+    public DatasetPipeline cache(ResultCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    // Also solves each connected component separately and reports a per-component forest block.
+    public DatasetPipeline spanningForest(boolean spanningForest) {
+        this.spanningForest = spanningForest;
+        return this;
+    }
+
+    public void process(List<Path> inputs, boolean pretty) throws IOException {
+        if (inputs.size() <= 1) {
+            for (Path input : inputs) processFile(input, pretty);
+            return;
+        }
+        ExecutorService files = Executors.newFixedThreadPool(Math.min(threads, inputs.size()), named("mst-serialize"));
+        try {
+            List<Future<?>> pending = new ArrayList<>();
+            for (Path input : inputs) {
+                pending.add(files.submit(() -> {
+                    processFile(input, pretty);
+                    return null;
+                }));
+            }
+            for (Future<?> f : pending) await(f);
+        } finally {
+            files.shutdownNow();
+        }
+    }
+
+    // Parses on a background thread, solves on the compute pool and writes in input order on the caller.
+    public void processFile(Path inputPath, boolean pretty) throws IOException {
+        Path outputPath = Runner.outputPath(inputPath, ".json");
+        Path summaryCsv = Runner.outputPath(inputPath, "_summary.csv");
+        System.out.println("\n Processing: " + inputPath.getFileName());
+
+        BlockingQueue<Future<Runner.Solved>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Future<?> parser = parse.submit(() -> {
+            try (GraphSource reader = GraphSource.open(inputPath, binaryInput)) {
+                while (true) {
+                    long t0 = System.nanoTime();
+                    GraphReader.Entry graph = reader.next();
+                    if (graph == null) break;
+                    Metrics.global().recordPhase(Metrics.Phase.IO_READ, t0, System.nanoTime());
+                    queue.put(compute.submit(() -> Runner.solve(graph, cache, spanningForest)));
+                }
+            } catch (InterruptedException e) {
+                return null;
+            } catch (Exception e) {
+                CompletableFuture<Runner.Solved> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                queue.put(failed);
+            }
+            queue.put(END);
+            return null;
+        });
+
+        try (ResultWriter out = new ResultWriter(outputPath, summaryCsv, pretty)) {
+            Future<Runner.Solved> next;
+            while ((next = take(queue)) != END) {
+                Runner.Solved solved = await(next);
+                long t0 = System.nanoTime();
+                Runner.write(out, solved);
+                Metrics.global().recordPhase(Metrics.Phase.IO_WRITE, t0, System.nanoTime());
+            }
+        } finally {
+            parser.cancel(true);
+        }
+
+        System.out.println("Output JSON saved to: " + outputPath);
+        System.out.println("Summary CSV saved to: " + summaryCsv);
+    }
+
+    private static <T> T take(BlockingQueue<T> queue) throws IOException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the next graph");
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a result");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor only exists on JDK 21+, so it is looked up reflectively.
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    static ThreadFactory named(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    @Override
+    public void close() {
+        parse.shutdownNow();
+        compute.shutdownNow();
+    }
+}
@@ -0,0 +1,378 @@
+package mst;
+
+import java.util.*;
+
+// Maintains a minimum spanning forest of a simple graph: parallel edges collapse to the lightest and self-loops are ignored.
+public class DynamicMST {
+    private static final byte DEAD = 0;
+    private static final byte TREE = 1;
+    private static final byte NON_TREE = 2;
+
+    public static class Result {
+        public final List<Edge> mstEdges;
+        public final double totalCost;
+        public final Map<String, Long> ops;
+        public final double timeMs;
+
+        public Result(List<Edge> mstEdges, double totalCost, Map<String, Long> ops, double timeMs) {
+            this.mstEdges = mstEdges;
+            this.totalCost = totalCost;
+            this.ops = ops;
+            this.timeMs = timeMs;
+        }
+    }
+
+    public static class Update {
+        public enum Kind { INSERT, DELETE, WEIGHT }
+
+        public final Kind kind;
+        public final String u;
+        public final String v;
+        public final double weight;
+
+        private Update(Kind kind, String u, String v, double weight) {
+            this.kind = kind;
+            this.u = u;
+            this.v = v;
+            this.weight = weight;
+        }
+
+        public static Update insert(String u, String v, double weight) { return new Update(Kind.INSERT, u, v, weight); }
+        public static Update delete(String u, String v) { return new Update(Kind.DELETE, u, v, 0); }
+        public static Update weight(String u, String v, double weight) { return new Update(Kind.WEIGHT, u, v, weight); }
+    }
+
+    private final List<String> labels = new ArrayList<>();
+    private final Map<String, Integer> index = new HashMap<>();
+    private final Map<Long, Integer> byPair = new HashMap<>();
+
+    private int edgeCount = 0;
+    private int[] eu = new int[16];
+    private int[] ev = new int[16];
+    private double[] ew = new double[16];
+    private byte[] state = new byte[16];
+
+    private int[][] treeAdj = new int[16][];
+    private int[] treeDeg = new int[16];
+    private final TreeSet<Integer> nonTree = new TreeSet<>((a, b) -> {
+        int c = Double.compare(ew[a], ew[b]);
+        return c != 0 ? c : Integer.compare(a, b);
+    });
+
+    private int[] stamp = new int[16];
+    private int[] parentEdge = new int[16];
+    private int[] stack = new int[16];
+    private int epoch = 0;
+
+    private double totalCost = 0.0;
+    private int treeSize = 0;
+    private long inserts, deletes, weightUpdates, treeSwaps;
+    private long pathSearches, verticesVisited, replacementSearches, replacementCandidates;
+
+    public DynamicMST(Graph g) {
+        for (String v : g.getVertices()) vertex(v);
+        CsrGraph csr = g.csr();
+        for (int e = 0; e < csr.edgeCount(); e++) {
+            int u = index.get(csr.label(csr.edgeU(e)));
+            int v = index.get(csr.label(csr.edgeV(e)));
+            if (u == v) continue;
+            Integer existing = byPair.get(pairKey(u, v));
+            if (existing == null) addEdge(u, v, csr.weight(e), NON_TREE);
+            else if (csr.weight(e) < ew[existing]) ew[existing] = csr.weight(e);
+        }
+
+        int[] order = EdgeSort.identity(edgeCount);
+        EdgeSort.sort(order, 0, edgeCount, ew);
+        IntUnionFind uf = new IntUnionFind(labels.size());
+        for (int e : order) {
+            if (uf.union(eu[e], ev[e])) linkTree(e);
+            else nonTree.add(e);
+        }
+    }
+
+    // Result.ops counts only this batch; ops() keeps the lifetime totals.
+    public Result apply(List<Update> batch) {
+        long t0 = System.nanoTime();
+        Map<String, Long> before = ops();
+        for (Update up : batch) {
+            switch (up.kind) {
+                case INSERT:
+                    insert(up.u, up.v, up.weight);
+                    break;
+                case DELETE:
+                    delete(up.u, up.v);
+                    break;
+                case WEIGHT:
+                    updateWeight(up.u, up.v, up.weight);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown update " + up.kind);
+            }
+        }
+        double timeMs = (System.nanoTime() - t0) / 1_000_000.0;
+        Map<String, Long> delta = ops();
+        delta.replaceAll((k, v) -> v - before.get(k));
+        return new Result(mstEdges(), totalCost, delta, timeMs);
+    }
+
+    public void insert(String a, String b, double w) {
+        int u = vertex(a), v = vertex(b);
+        if (u == v) return;
+        inserts++;
+        Integer existing = byPair.get(pairKey(u, v));
+        if (existing != null) {
+            // A parallel edge only matters if it is lighter, as in the constructor.
+            if (w < ew[existing]) setWeight(existing, w);
+            return;
+        }
+        int e = addEdge(u, v, w, NON_TREE);
+        offerNonTree(e);
+    }
+
+    public void delete(String a, String b) {
+        int e = edgeId(a, b);
+        deletes++;
+        byPair.remove(pairKey(eu[e], ev[e]));
+        if (state[e] == NON_TREE) {
+            nonTree.remove(e);
+        } else {
+            cutTree(e);
+            reconnect(eu[e], ev[e], -1);
+        }
+        state[e] = DEAD;
+    }
+
+    public void updateWeight(String a, String b, double w) {
+        int e = edgeId(a, b);
+        weightUpdates++;
+        setWeight(e, w);
+    }
+
+    private void setWeight(int e, double w) {
+        double old = ew[e];
+        if (state[e] == NON_TREE) {
+            nonTree.remove(e);
+            ew[e] = w;
+            if (w < old) offerNonTree(e);
+            else nonTree.add(e);
+        } else if (w <= old) {
+            ew[e] = w;
+            totalCost += w - old;
+        } else {
+            // A heavier tree edge may now be replaced by the lightest edge across the cut it separates.
+            cutTree(e);
+            ew[e] = w;
+            reconnect(eu[e], ev[e], e);
+        }
+    }
+
+    public double totalCost() { return totalCost; }
+    public int treeEdgeCount() { return treeSize; }
+
+    public Map<String, Long> ops() {
+        Map<String, Long> ops = new LinkedHashMap<>();
+        ops.put("inserts", inserts);
+        ops.put("deletes", deletes);
+        ops.put("weight_updates", weightUpdates);
+        ops.put("tree_swaps", treeSwaps);
+        ops.put("path_searches", pathSearches);
+        ops.put("vertices_visited", verticesVisited);
+        ops.put("replacement_searches", replacementSearches);
+        ops.put("replacement_candidates", replacementCandidates);
+        return ops;
+    }
+
+    public List<Edge> mstEdges() {
+        List<Edge> out = new ArrayList<>(treeSize);
+        for (int x = 0; x < labels.size(); x++) {
+            for (int i = 0; i < treeDeg[x]; i++) {
+                int e = treeAdj[x][i];
+                if (eu[e] == x) out.add(new Edge(labels.get(eu[e]), labels.get(ev[e]), ew[e]));
+            }
+        }
+        return out;
+    }
+
+    // Puts a non-tree edge into the forest if it joins two trees or beats the heaviest edge on its tree path.
+    private void offerNonTree(int e) {
+        int maxEdge = pathMax(eu[e], ev[e]);
+        if (maxEdge == -2) {
+            linkTree(e);
+        } else if (less(e, maxEdge)) {
+            cutTree(maxEdge);
+            state[maxEdge] = NON_TREE;
+            nonTree.add(maxEdge);
+            linkTree(e);
+            treeSwaps++;
+        } else {
+            state[e] = NON_TREE;
+            nonTree.add(e);
+        }
+    }
+
+    // After u-v was cut, links the lightest edge across the cut; candidate (if >= 0) is a detached edge also eligible.
+    private void reconnect(int u, int v, int candidate) {
+        replacementSearches++;
+        int sideU = mark(u);
+        int sideV = mark(v);
+        int best = -1;
+        for (int f : nonTree) {
+            replacementCandidates++;
+            if (candidate >= 0 && !less(f, candidate)) break;
+            int su = stamp[eu[f]], sv = stamp[ev[f]];
+            if ((su == sideU && sv == sideV) || (su == sideV && sv == sideU)) {
+                best = f;
+                break;
+            }
+        }
+        if (best >= 0) {
+            nonTree.remove(best);
+            linkTree(best);
+            if (candidate >= 0) {
+                state[candidate] = NON_TREE;
+                nonTree.add(candidate);
+                treeSwaps++;
+            }
+        } else if (candidate >= 0) {
+            linkTree(candidate);
+        }
+    }
+
+    // Returns the heaviest tree edge on the u-v path, or -2 if u and v are in different trees.
+    private int pathMax(int u, int v) {
+        pathSearches++;
+        int mark = ++epoch;
+        int top = 0;
+        stack[top++] = u;
+        stamp[u] = mark;
+        parentEdge[u] = -1;
+        boolean found = false;
+        while (top > 0 && !found) {
+            int x = stack[--top];
+            verticesVisited++;
+            for (int i = 0; i < treeDeg[x]; i++) {
+                int e = treeAdj[x][i];
+                int y = eu[e] == x ? ev[e] : eu[e];
+                if (stamp[y] == mark) continue;
+                stamp[y] = mark;
+                parentEdge[y] = e;
+                if (y == v) {
+                    found = true;
+                    break;
+                }
+                stack[top++] = y;
+            }
+        }
+        if (!found) return -2;
+        int max = -1;
+        for (int x = v; x != u; ) {
+            int e = parentEdge[x];
+            if (max < 0 || less(max, e)) max = e;
+            x = eu[e] == x ? ev[e] : eu[e];
+        }
+        return max;
+    }
+
+    // Stamps the tree containing s with a fresh epoch and returns it.
+    private int mark(int s) {
+        int mark = ++epoch;
+        int top = 0;
+        stack[top++] = s;
+        stamp[s] = mark;
+        while (top > 0) {
+            int x = stack[--top];
+            verticesVisited++;
+            for (int i = 0; i < treeDeg[x]; i++) {
+                int e = treeAdj[x][i];
+                int y = eu[e] == x ? ev[e] : eu[e];
+                if (stamp[y] != mark) {
+                    stamp[y] = mark;
+                    stack[top++] = y;
+                }
+            }
+        }
+        return mark;
+    }
+
+    private boolean less(int a, int b) {
+        return EdgeSort.less(a, b, ew);
+    }
+
+    private void linkTree(int e) {
+        state[e] = TREE;
+        adjAdd(eu[e], e);
+        adjAdd(ev[e], e);
+        totalCost += ew[e];
+        treeSize++;
+    }
+
+    private void cutTree(int e) {
+        adjRemove(eu[e], e);
+        adjRemove(ev[e], e);
+        totalCost -= ew[e];
+        treeSize--;
+    }
+
+    private void adjAdd(int x, int e) {
+        if (treeAdj[x] == null) treeAdj[x] = new int[4];
+        else if (treeDeg[x] == treeAdj[x].length) treeAdj[x] = Arrays.copyOf(treeAdj[x], treeDeg[x] * 2);
+        treeAdj[x][treeDeg[x]++] = e;
+    }
+
+    private void adjRemove(int x, int e) {
+        int[] list = treeAdj[x];
+        for (int i = 0; i < treeDeg[x]; i++) {
+            if (list[i] == e) {
+                list[i] = list[--treeDeg[x]];
+                return;
+            }
+        }
+        throw new IllegalStateException("Edge " + e + " is not in the tree at vertex " + labels.get(x));
+    }
+
+    private int vertex(String label) {
+        Integer idx = index.get(label);
+        if (idx != null) return idx;
+        int v = labels.size();
+        labels.add(label);
+        index.put(label, v);
+        if (v == treeAdj.length) {
+            int cap = v * 2;
+            treeAdj = Arrays.copyOf(treeAdj, cap);
+            treeDeg = Arrays.copyOf(treeDeg, cap);
+            stamp = Arrays.copyOf(stamp, cap);
+            parentEdge = Arrays.copyOf(parentEdge, cap);
+            stack = Arrays.copyOf(stack, cap);
+        }
+        return v;
+    }
+
+    private int addEdge(int u, int v, double w, byte st) {
+        if (edgeCount == eu.length) {
+            int cap = edgeCount * 2;
+            eu = Arrays.copyOf(eu, cap);
+            ev = Arrays.copyOf(ev, cap);
+            ew = Arrays.copyOf(ew, cap);
+            state = Arrays.copyOf(state, cap);
+        }
+        int e = edgeCount++;
+        eu[e] = u;
+        ev[e] = v;
+        ew[e] = w;
+        state[e] = st;
+        byPair.put(pairKey(u, v), e);
+        return e;
+    }
+
+    private int edgeId(String a, String b) {
+        Integer u = index.get(a), v = index.get(b);
+        Integer e = u == null || v == null ? null : byPair.get(pairKey(u, v));
+        if (e == null) throw new IllegalArgumentException("No edge between " + a + " and " + b);
+        return e;
+    }
+
+    private static long pairKey(int u, int v) {
+        int lo = Math.min(u, v), hi = Math.max(u, v);
+        return ((long) lo << 32) | hi;
+    }
+}
@@ -0,0 +1,217 @@
+package mst;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public final class EdgeSort {
+    private static final int INSERTION_THRESHOLD = 24;
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+    private static final int LINEAR_SORT_THRESHOLD = 256;
+    private static final int COUNTING_MAX_RANGE = 1 << 16;
+    private static final int RADIX_BITS = 16;
+    private static final int RADIX_MAX_PASSES = 2;
+
+    public enum Strategy {
+        COUNTING("counting"), RADIX("radix"), COMPARISON("comparison");
+
+        public final String key;
+
+        Strategy(String key) { this.key = key; }
+    }
+
+    private EdgeSort() {}
+
+    public static int[] identity(int n) {
+        int[] idx = new int[n];
+        for (int i = 0; i < n; i++) idx[i] = i;
+        return idx;
+    }
+
+    // Sorts edge indices by (weight, index), which is the order a stable sort by weight would give.
+    public static void sort(int[] idx, int from, int to, double[] w) {
+        while (to - from > INSERTION_THRESHOLD) {
+            int mid = (from + to) >>> 1;
+            int last = to - 1;
+            if (less(idx[mid], idx[from], w)) swap(idx, mid, from);
+            if (less(idx[last], idx[from], w)) swap(idx, last, from);
+            if (less(idx[last], idx[mid], w)) swap(idx, last, mid);
+            int pivot = idx[mid];
+
+            int i = from, j = last;
+            while (i <= j) {
+                while (less(idx[i], pivot, w)) i++;
+                while (less(pivot, idx[j], w)) j--;
+                if (i <= j) swap(idx, i++, j--);
+            }
+            // Recurse into the smaller half so the stack stays logarithmic.
+            if (j + 1 - from < to - i) {
+                sort(idx, from, j + 1, w);
+                from = i;
+            } else {
+                sort(idx, i, to, w);
+                to = j + 1;
+            }
+        }
+        insertionSort(idx, from, to, w);
+    }
+
+    /*
+     * Same (weight, index) order as sort(), provided idx[from, to) is ascending on entry (as identity() gives).
+     * Integral weights in a small range use a stable counting sort; otherwise, if the order-preserving weight keys
+     * differ in at most two 16-bit digits, an LSD radix sort over those digits; anything else falls back to sort().
+     */
+    public static Strategy sortAdaptive(int[] idx, int from, int to, double[] w) {
+        int n = to - from;
+        if (n < LINEAR_SORT_THRESHOLD) {
+            sort(idx, from, to, w);
+            return Strategy.COMPARISON;
+        }
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        boolean integral = true;
+        long keyOr = 0, keyAnd = -1L;
+        for (int i = from; i < to; i++) {
+            double x = w[idx[i]];
+            long key = sortableKey(x);
+            keyOr |= key;
+            keyAnd &= key;
+            // -0.0 orders before 0.0 under Double.compare, so it cannot share a counting bucket with it.
+            if (integral && (x != Math.rint(x) || Double.isInfinite(x) || Double.doubleToRawLongBits(x) == Long.MIN_VALUE)) {
+                integral = false;
+            }
+            if (x < min) min = x;
+            if (x > max) max = x;
+        }
+        if (integral && max - min < Math.max(COUNTING_MAX_RANGE, n)) {
+            countingSort(idx, from, to, w, min, (int) (max - min) + 1);
+            return Strategy.COUNTING;
+        }
+        long differing = keyOr ^ keyAnd;
+        int passes = 0;
+        for (int shift = 0; shift < 64; shift += RADIX_BITS) {
+            if (((differing >>> shift) & 0xFFFF) != 0) passes++;
+        }
+        if (passes > RADIX_MAX_PASSES) {
+            sort(idx, from, to, w);
+            return Strategy.COMPARISON;
+        }
+        radixSort(idx, from, to, w, differing);
+        return Strategy.RADIX;
+    }
+
+    // Maps a double to a long whose unsigned order matches Double.compare (NaN last, -0.0 before 0.0).
+    static long sortableKey(double w) {
+        long bits = Double.doubleToLongBits(w);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    private static void countingSort(int[] idx, int from, int to, double[] w, double min, int range) {
+        int[] start = new int[range + 1];
+        for (int i = from; i < to; i++) start[(int) (w[idx[i]] - min) + 1]++;
+        for (int b = 0; b < range; b++) start[b + 1] += start[b];
+        int[] out = new int[to - from];
+        for (int i = from; i < to; i++) {
+            int e = idx[i];
+            out[start[(int) (w[e] - min)]++] = e;
+        }
+        System.arraycopy(out, 0, idx, from, out.length);
+    }
+
+    private static void radixSort(int[] idx, int from, int to, double[] w, long differing) {
+        int n = to - from;
+        int[] src = Arrays.copyOfRange(idx, from, to);
+        int[] dst = new int[n];
+        long[] keys = new long[n];
+        long[] keysDst = new long[n];
+        for (int i = 0; i < n; i++) keys[i] = sortableKey(w[src[i]]);
+        int[] start = new int[(1 << RADIX_BITS) + 1];
+        for (int shift = 0; shift < 64; shift += RADIX_BITS) {
+            if (((differing >>> shift) & 0xFFFF) == 0) continue;
+            Arrays.fill(start, 0);
+            for (int i = 0; i < n; i++) start[(int) (keys[i] >>> shift & 0xFFFF) + 1]++;
+            for (int b = 0; b < 1 << RADIX_BITS; b++) start[b + 1] += start[b];
+            for (int i = 0; i < n; i++) {
+                int pos = start[(int) (keys[i] >>> shift & 0xFFFF)]++;
+                dst[pos] = src[i];
+                keysDst[pos] = keys[i];
+            }
+            int[] t = src;
+            src = dst;
+            dst = t;
+            long[] tk = keys;
+            keys = keysDst;
+            keysDst = tk;
+        }
+        System.arraycopy(src, 0, idx, from, n);
+    }
+
+    // Parallel merge sort with the same (weight, index) order as sort(); small ranges fall back to sort().
+    public static void parallelSort(int[] idx, int from, int to, double[] w, ForkJoinPool pool) {
+        if (to - from <= PARALLEL_THRESHOLD || pool.getParallelism() == 1) {
+            sort(idx, from, to, w);
+            return;
+        }
+        pool.invoke(new MergeSortTask(idx, new int[to - from], from, to, from, w));
+    }
+
+    private static final class MergeSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] idx;
+        private final int[] tmp;
+        private final int from;
+        private final int to;
+        private final int base;
+        private final double[] w;
+
+        MergeSortTask(int[] idx, int[] tmp, int from, int to, int base, double[] w) {
+            this.idx = idx;
+            this.tmp = tmp;
+            this.from = from;
+            this.to = to;
+            this.base = base;
+            this.w = w;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                sort(idx, from, to, w);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MergeSortTask(idx, tmp, from, mid, base, w),
+                    new MergeSortTask(idx, tmp, mid, to, base, w));
+            if (!less(idx[mid], idx[mid - 1], w)) return;
+
+            System.arraycopy(idx, from, tmp, from - base, to - from);
+            int i = from - base, iEnd = mid - base, j = iEnd, jEnd = to - base, k = from;
+            while (i < iEnd && j < jEnd) idx[k++] = less(tmp[j], tmp[i], w) ? tmp[j++] : tmp[i++];
+            while (i < iEnd) idx[k++] = tmp[i++];
+            while (j < jEnd) idx[k++] = tmp[j++];
+        }
+    }
+
+    static boolean less(int a, int b, double[] w) {
+        int c = Double.compare(w[a], w[b]);
+        return c < 0 || (c == 0 && a < b);
+    }
+
+    private static void insertionSort(int[] idx, int from, int to, double[] w) {
+        for (int i = from + 1; i < to; i++) {
+            int x = idx[i];
+            int j = i - 1;
+            while (j >= from && less(x, idx[j], w)) {
+                idx[j + 1] = idx[j];
+                j--;
+            }
+            idx[j + 1] = x;
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
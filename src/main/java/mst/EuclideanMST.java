@@ -0,0 +1,307 @@
+package mst;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/*
+ * Euclidean MST of a point set without materialising the complete graph: Borůvka rounds over a k-d tree. In each
+ * round every point looks up its nearest neighbour outside its own component; subtrees whose points all share the
+ * querying component are skipped, and a per-component bound shared between threads prunes the rest. Edges are
+ * ordered by (length, lower index, higher index), so every round picks a unique cheapest edge per component.
+ * With epsilon > 0 a subtree is also skipped unless it could beat the current candidate by more than a factor of
+ * (1 + epsilon), which gives a tree at most (1 + epsilon) times the optimum.
+ */
+public class EuclideanMST {
+    private static final int LEAF_SIZE = 8;
+    private static final int GRAIN = 1024;
+    private static final long NO_BOUND = Double.doubleToLongBits(Double.POSITIVE_INFINITY);
+
+    public static class Result {
+        public final List<Edge> mstEdges;
+        public final double totalCost;
+        public final Map<String, Long> ops;
+        public final double timeMs;
+
+        public Result(List<Edge> mstEdges, double totalCost, Map<String, Long> ops, double timeMs) {
+            this.mstEdges = mstEdges;
+            this.totalCost = totalCost;
+            this.ops = ops;
+            this.timeMs = timeMs;
+        }
+    }
+
+    private EuclideanMST() {}
+
+    public static Result compute(PointSet points, IntFunction<String> label) {
+        return compute(points, label, points.epsilon, ForkJoinPool.commonPool());
+    }
+
+    public static Result compute(PointSet points, IntFunction<String> label, double epsilon, ForkJoinPool pool) {
+        if (epsilon < 0 || Double.isNaN(epsilon)) throw new IllegalArgumentException("epsilon must be non-negative: " + epsilon);
+        long t0 = System.nanoTime();
+        int n = points.size();
+        KdTree tree = new KdTree(points);
+
+        IntUnionFind uf = new IntUnionFind(n);
+        int[] comp = new int[n];
+        double[] bestD2 = new double[n];
+        int[] bestJ = new int[n];
+        AtomicLongArray bound = new AtomicLongArray(n);
+        double[] candD2 = new double[n];
+        int[] candA = new int[n];
+        int[] candB = new int[n];
+        double slack = (1 + epsilon) * (1 + epsilon);
+        LongAdder distanceEvals = new LongAdder();
+        LongAdder nodeVisits = new LongAdder();
+
+        List<Edge> mst = new ArrayList<>(Math.max(0, n - 1));
+        double totalCost = 0.0;
+        long rounds = 0;
+        while (mst.size() < n - 1) {
+            for (int i = 0; i < n; i++) {
+                comp[i] = uf.find(i);
+                bound.set(i, NO_BOUND);
+                candA[i] = -1;
+            }
+            tree.labelComponents(comp);
+
+            Parallel.forEach(pool, n, GRAIN, q -> tree.nearestOutside(q, comp, bound, slack, bestD2, bestJ,
+                    distanceEvals, nodeVisits));
+
+            for (int q = 0; q < n; q++) {
+                int j = bestJ[q];
+                if (j < 0) continue;
+                int c = comp[q];
+                int lo = Math.min(q, j), hi = Math.max(q, j);
+                double d2 = bestD2[q];
+                if (candA[c] < 0 || d2 < candD2[c] || (d2 == candD2[c] && (lo < candA[c] || (lo == candA[c] && hi < candB[c])))) {
+                    candD2[c] = d2;
+                    candA[c] = lo;
+                    candB[c] = hi;
+                }
+            }
+
+            int merged = 0;
+            for (int c = 0; c < n; c++) {
+                if (candA[c] < 0 || !uf.union(candA[c], candB[c])) continue;
+                double w = Math.sqrt(candD2[c]);
+                mst.add(new Edge(label.apply(candA[c]), label.apply(candB[c]), w));
+                totalCost += w;
+                merged++;
+            }
+            rounds++;
+            if (merged == 0) break;
+        }
+
+        long t1 = System.nanoTime();
+        // Tree build and nearest-neighbour rounds dominate; the few unions per round are not split out.
+        Metrics.global().recordPhase(Metrics.Phase.SEARCH, t0, t1);
+        Map<String, Long> ops = new LinkedHashMap<>();
+        ops.put("points", (long) n);
+        ops.put("dims", (long) points.dims);
+        ops.put("rounds", rounds);
+        ops.put("kd_nodes", (long) tree.nodeCount());
+        ops.put("node_visits", nodeVisits.sum());
+        ops.put("distance_evals", distanceEvals.sum());
+        ops.put("find_calls", uf.getFindCalls());
+        ops.put("unions", uf.getUnions());
+        ops.put("approximate", epsilon > 0 ? 1L : 0L);
+        ops.put("parallelism", (long) pool.getParallelism());
+        return new Result(mst, totalCost, ops, (t1 - t0) / 1_000_000.0);
+    }
+
+    /*
+     * Balanced k-d tree over a permutation of the point indices: median splits on the widest axis down to leaves of
+     * LEAF_SIZE points. Nodes are numbered in pre-order, so children always have higher numbers than their parent.
+     */
+    static final class KdTree {
+        private final PointSet points;
+        private final int dims;
+        private final int[] perm;
+        private int[] start, end, left, right;
+        private double[] lo, hi;
+        // Component shared by every point under the node, or -1 when mixed; refreshed each Borůvka round.
+        private int[] nodeComp;
+        private int nodes = 0;
+        private int maxDepth = 0;
+        private final ThreadLocal<int[]> stacks;
+        private final ThreadLocal<double[]> stackDist;
+
+        KdTree(PointSet points) {
+            this.points = points;
+            this.dims = points.dims;
+            int n = points.size();
+            perm = new int[n];
+            for (int i = 0; i < n; i++) perm[i] = i;
+            int cap = Math.max(1, 2 * ((n + LEAF_SIZE - 1) / LEAF_SIZE));
+            start = new int[cap];
+            end = new int[cap];
+            left = new int[cap];
+            right = new int[cap];
+            lo = new double[cap * dims];
+            hi = new double[cap * dims];
+            if (n > 0) build(0, n, 0);
+            nodeComp = new int[nodes];
+            int depth = maxDepth;
+            stacks = ThreadLocal.withInitial(() -> new int[2 * depth + 8]);
+            stackDist = ThreadLocal.withInitial(() -> new double[2 * depth + 8]);
+        }
+
+        int nodeCount() { return nodes; }
+
+        private int build(int from, int to, int depth) {
+            if (nodes == start.length) grow();
+            int k = nodes++;
+            maxDepth = Math.max(maxDepth, depth);
+            start[k] = from;
+            end[k] = to;
+            left[k] = -1;
+            right[k] = -1;
+            int base = k * dims;
+            for (int d = 0; d < dims; d++) {
+                lo[base + d] = Double.POSITIVE_INFINITY;
+                hi[base + d] = Double.NEGATIVE_INFINITY;
+            }
+            for (int i = from; i < to; i++) {
+                for (int d = 0; d < dims; d++) {
+                    double c = points.coord(perm[i], d);
+                    if (c < lo[base + d]) lo[base + d] = c;
+                    if (c > hi[base + d]) hi[base + d] = c;
+                }
+            }
+            if (to - from <= LEAF_SIZE) return k;
+            int axis = 0;
+            for (int d = 1; d < dims; d++) {
+                if (hi[base + d] - lo[base + d] > hi[base + axis] - lo[base + axis]) axis = d;
+            }
+            if (hi[base + axis] == lo[base + axis]) return k;
+            int mid = (from + to) >>> 1;
+            select(from, to - 1, mid, axis);
+            int l = build(from, mid, depth + 1);
+            int r = build(mid, to, depth + 1);
+            left[k] = l;
+            right[k] = r;
+            return k;
+        }
+
+        private void grow() {
+            int cap = start.length * 2;
+            start = Arrays.copyOf(start, cap);
+            end = Arrays.copyOf(end, cap);
+            left = Arrays.copyOf(left, cap);
+            right = Arrays.copyOf(right, cap);
+            lo = Arrays.copyOf(lo, cap * dims);
+            hi = Arrays.copyOf(hi, cap * dims);
+        }
+
+        // Quickselect on perm[from..to] so that perm[k] holds the k-th smallest coordinate on axis.
+        private void select(int from, int to, int k, int axis) {
+            while (to > from) {
+                double pivot = points.coord(perm[(from + to) >>> 1], axis);
+                int i = from, j = to;
+                while (i <= j) {
+                    while (points.coord(perm[i], axis) < pivot) i++;
+                    while (points.coord(perm[j], axis) > pivot) j--;
+                    if (i <= j) {
+                        int t = perm[i];
+                        perm[i++] = perm[j];
+                        perm[j--] = t;
+                    }
+                }
+                if (k <= j) to = j;
+                else if (k >= i) from = i;
+                else return;
+            }
+        }
+
+        void labelComponents(int[] comp) {
+            for (int k = nodes - 1; k >= 0; k--) {
+                if (left[k] < 0) {
+                    int c = comp[perm[start[k]]];
+                    for (int i = start[k] + 1; i < end[k] && c >= 0; i++) {
+                        if (comp[perm[i]] != c) c = -1;
+                    }
+                    nodeComp[k] = c;
+                } else {
+                    int c = nodeComp[left[k]];
+                    nodeComp[k] = c == nodeComp[right[k]] ? c : -1;
+                }
+            }
+        }
+
+        private double minDist2(int k, int q) {
+            double s = 0;
+            int base = k * dims;
+            for (int d = 0; d < dims; d++) {
+                double c = points.coord(q, d);
+                double x = c < lo[base + d] ? lo[base + d] - c : c > hi[base + d] ? c - hi[base + d] : 0;
+                s += x * x;
+            }
+            return s;
+        }
+
+        /*
+         * Nearest point to q outside comp[q], using the component's shared bound to prune. Ties at equal distance
+         * keep the lower index. Records bestJ[q] = -1 when nothing at or under the bound was found.
+         */
+        void nearestOutside(int q, int[] comp, AtomicLongArray bound, double slack, double[] bestD2, int[] bestJ,
+                            LongAdder distanceEvals, LongAdder nodeVisits) {
+            int c = comp[q];
+            double best = Double.longBitsToDouble(bound.get(c));
+            int bestIdx = -1;
+            long evals = 0, visits = 0;
+            // Each stacked node carries its box distance, computed once when its parent was expanded.
+            int[] stack = stacks.get();
+            double[] dist = stackDist.get();
+            int top = 0;
+            stack[top] = 0;
+            dist[top++] = 0;
+            while (top > 0) {
+                int k = stack[--top];
+                if (nodeComp[k] == c || dist[top] * slack > best) continue;
+                visits++;
+                if (left[k] < 0) {
+                    for (int i = start[k]; i < end[k]; i++) {
+                        int j = perm[i];
+                        if (comp[j] == c) continue;
+                        double d2 = points.distance2(q, j);
+                        evals++;
+                        if (d2 < best || (d2 == best && (bestIdx < 0 || j < bestIdx))) {
+                            best = d2;
+                            bestIdx = j;
+                        }
+                    }
+                    continue;
+                }
+                // Push the farther child first so the nearer one is searched first and tightens the bound.
+                int l = left[k], r = right[k];
+                double dl = minDist2(l, q), dr = minDist2(r, q);
+                if (dl < dr) {
+                    stack[top] = r;
+                    dist[top++] = dr;
+                    stack[top] = l;
+                    dist[top++] = dl;
+                } else {
+                    stack[top] = l;
+                    dist[top++] = dl;
+                    stack[top] = r;
+                    dist[top++] = dr;
+                }
+            }
+            bestD2[q] = best;
+            bestJ[q] = bestIdx;
+            distanceEvals.add(evals);
+            nodeVisits.add(visits);
+            if (bestIdx < 0) return;
+            // Non-negative doubles order the same as their bit patterns, so the bound is a plain CAS-min on longs.
+            long bits = Double.doubleToLongBits(best);
+            while (true) {
+                long cur = bound.get(c);
+                if (cur <= bits || bound.compareAndSet(c, cur, bits)) break;
+            }
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package mst;
+
+import java.io.*;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.*;
+import java.util.*;
+
+/*
+ * Kruskal over an edge stream that need not fit in memory: the stream is cut into runs of at most runEdges edges,
+ * each run is sorted and spilled to a temp file, and a k-way merge feeds the union-find directly. Only the O(V)
+ * union-find, one run buffer and one read buffer per run are held in memory. Ties break by input position, so the
+ * tree matches KruskalMST.computeIndexed on the same edges. Inputs beyond one mappable .mstg record come from a
+ * RawEdgeFile, which is streamed rather than mapped.
+ */
+public class ExternalKruskal {
+    public static final int DEFAULT_RUN_EDGES = 1 << 22;
+    private static final int RECORD_BYTES = 16;
+    private static final int IO_BUFFER = 1 << 16;
+
+    // Sequential edge source; endpoints are dense vertex indices.
+    public interface EdgeCursor {
+        boolean advance() throws IOException;
+        int u();
+        int v();
+        double weight();
+    }
+
+    private final Path tempDir;
+    private final int runEdges;
+
+    public ExternalKruskal(Path tempDir, int runEdges) {
+        if (runEdges < 1) throw new IllegalArgumentException("runEdges must be positive: " + runEdges);
+        this.tempDir = tempDir;
+        this.runEdges = runEdges;
+    }
+
+    public static EdgeCursor cursor(BinaryGraphFile.MappedGraph g) {
+        IntBuffer us = g.edgeU();
+        IntBuffer vs = g.edgeV();
+        DoubleBuffer ws = g.weights();
+        return new EdgeCursor() {
+            int u, v;
+            double w;
+
+            @Override
+            public boolean advance() {
+                if (!us.hasRemaining()) return false;
+                u = us.get();
+                v = vs.get();
+                w = ws.get();
+                return true;
+            }
+
+            @Override public int u() { return u; }
+            @Override public int v() { return v; }
+            @Override public double weight() { return w; }
+        };
+    }
+
+    public static EdgeCursor cursor(CsrGraph csr) {
+        return new EdgeCursor() {
+            int e = -1;
+
+            @Override
+            public boolean advance() { return ++e < csr.edgeCount(); }
+
+            @Override public int u() { return csr.edgeU(e); }
+            @Override public int v() { return csr.edgeV(e); }
+            @Override public double weight() { return csr.weight(e); }
+        };
+    }
+
+    public OffHeapMST.Result compute(int vertexCount, EdgeCursor edges) throws IOException {
+        long t0 = System.nanoTime();
+        Path dir = Files.createTempDirectory(tempDir, "mst-runs");
+        List<Path> runFiles = new ArrayList<>();
+        // The run buffer grows on demand, so small streams never allocate a full run.
+        int cap = Math.min(runEdges, 1 << 16);
+        int[] bu = new int[cap];
+        int[] bv = new int[cap];
+        double[] bw = new double[cap];
+        long edgesRead = 0;
+        long spilledBytes = 0;
+        long sortNanos = 0;
+        int buffered = 0;
+        int[] order = new int[cap];
+        try {
+            while (true) {
+                boolean more = edges.advance();
+                if (more) {
+                    int u = edges.u(), v = edges.v();
+                    if (u < 0 || u >= vertexCount || v < 0 || v >= vertexCount) {
+                        throw new IllegalArgumentException("Edge " + u + "-" + v + " is outside 0.." + (vertexCount - 1));
+                    }
+                    if (buffered == bu.length) {
+                        int grown = (int) Math.min(runEdges, 2L * bu.length);
+                        bu = Arrays.copyOf(bu, grown);
+                        bv = Arrays.copyOf(bv, grown);
+                        bw = Arrays.copyOf(bw, grown);
+                        order = new int[grown];
+                    }
+                    bu[buffered] = u;
+                    bv[buffered] = v;
+                    bw[buffered] = edges.weight();
+                    buffered++;
+                    edgesRead++;
+                }
+                if (buffered == runEdges || (!more && buffered > 0)) {
+                    long ts = System.nanoTime();
+                    for (int i = 0; i < buffered; i++) order[i] = i;
+                    EdgeSort.sort(order, 0, buffered, bw);
+                    sortNanos += System.nanoTime() - ts;
+                    // A stream that fits in a single run is merged straight from the buffer.
+                    if (!more && runFiles.isEmpty()) break;
+                    Path run = dir.resolve("run-" + runFiles.size() + ".bin");
+                    writeRun(run, order, buffered, bu, bv, bw);
+                    runFiles.add(run);
+                    spilledBytes += (long) buffered * RECORD_BYTES;
+                    buffered = 0;
+                }
+                if (!more) break;
+            }
+            long tRuns = System.nanoTime();
+            Metrics.global().phase(Metrics.Phase.SORT).recordNanos(sortNanos);
+            Metrics.global().recordPhase(Metrics.Phase.IO_WRITE, t0, tRuns);
+
+            List<RunReader> readers = new ArrayList<>();
+            try {
+                if (runFiles.isEmpty()) {
+                    if (buffered > 0) readers.add(new RunReader(0, order, buffered, bu, bv, bw));
+                } else {
+                    for (int i = 0; i < runFiles.size(); i++) readers.add(new RunReader(i, runFiles.get(i)));
+                }
+                OffHeapMST.Result r = merge(vertexCount, readers, t0);
+                r.ops.put("edges_read", edgesRead);
+                r.ops.put("runs", (long) runFiles.size());
+                r.ops.put("spilled_bytes", spilledBytes);
+                return r;
+            } finally {
+                for (RunReader rr : readers) rr.close();
+            }
+        } finally {
+            for (Path run : runFiles) Files.deleteIfExists(run);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private OffHeapMST.Result merge(int vertexCount, List<RunReader> readers, long t0) throws IOException {
+        long tMerge = System.nanoTime();
+        PriorityQueue<RunReader> heads = new PriorityQueue<>(Math.max(1, readers.size()), (a, b) -> {
+            int c = Double.compare(a.w, b.w);
+            return c != 0 ? c : Integer.compare(a.run, b.run);
+        });
+        for (RunReader r : readers) {
+            if (r.advance()) heads.add(r);
+        }
+
+        IntUnionFind uf = new IntUnionFind(vertexCount);
+        OffHeapEdgeStore tree = OffHeapEdgeStore.direct(vertexCount);
+        int target = Math.max(0, vertexCount - 1);
+        double totalCost = 0.0;
+        long merged = 0;
+        while (!heads.isEmpty() && tree.size() < target) {
+            RunReader r = heads.poll();
+            merged++;
+            if (uf.union(r.u, r.v)) {
+                tree.add(r.u, r.v, r.w);
+                totalCost += r.w;
+            }
+            if (r.advance()) heads.add(r);
+        }
+
+        long t1 = System.nanoTime();
+        Metrics.global().recordPhase(Metrics.Phase.UNION_FIND, tMerge, t1);
+        Map<String, Long> ops = new LinkedHashMap<>();
+        ops.put("edge_considered", merged);
+        ops.put("find_calls", uf.getFindCalls());
+        ops.put("unions", uf.getUnions());
+        ops.put("early_stop", heads.isEmpty() ? 0L : 1L);
+        return new OffHeapMST.Result(tree, totalCost, ops, (t1 - t0) / 1_000_000.0);
+    }
+
+    private static void writeRun(Path run, int[] order, int count, int[] bu, int[] bv, double[] bw) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), IO_BUFFER))) {
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                int e = order[i];
+                out.writeInt(bu[e]);
+                out.writeInt(bv[e]);
+                out.writeDouble(bw[e]);
+            }
+        }
+    }
+
+    // Head of one sorted run, read either from its spill file or from the in-memory buffer.
+    private static final class RunReader implements Closeable {
+        final int run;
+        private final DataInputStream in;
+        private final int[] order;
+        private final int[] bu;
+        private final int[] bv;
+        private final double[] bw;
+        private int remaining;
+        private int pos = 0;
+        int u, v;
+        double w;
+
+        RunReader(int run, Path file) throws IOException {
+            this.run = run;
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), IO_BUFFER));
+            this.remaining = in.readInt();
+            this.order = null;
+            this.bu = null;
+            this.bv = null;
+            this.bw = null;
+        }
+
+        RunReader(int run, int[] order, int count, int[] bu, int[] bv, double[] bw) {
+            this.run = run;
+            this.in = null;
+            this.order = order;
+            this.remaining = count;
+            this.bu = bu;
+            this.bv = bv;
+            this.bw = bw;
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) return false;
+            remaining--;
+            if (in != null) {
+                u = in.readInt();
+                v = in.readInt();
+                w = in.readDouble();
+            } else {
+                int e = order[pos++];
+                u = bu[e];
+                v = bv[e];
+                w = bw[e];
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) in.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ExternalKruskal <graphs.mstg | edges.mste> [--run-edges=N] [--tmp=dir]");
+            System.exit(2);
+        }
+        int runEdges = DEFAULT_RUN_EDGES;
+        Path tmp = Paths.get(System.getProperty("java.io.tmpdir"));
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--run-edges=")) runEdges = Integer.parseInt(args[i].substring("--run-edges=".length()));
+            else if (args[i].startsWith("--tmp=")) tmp = Paths.get(args[i].substring("--tmp=".length()));
+        }
+        ExternalKruskal kruskal = new ExternalKruskal(tmp, runEdges);
+        Path input = Paths.get(args[0]);
+        if (RawEdgeFile.isRawEdgeFile(input)) {
+            try (RawEdgeFile.Cursor edges = RawEdgeFile.open(input)) {
+                OffHeapMST.Result r = kruskal.compute(edges.vertexCount(), edges);
+                System.out.printf("%s: V=%d E=%d cost=%.2f tree=%d time=%s ops=%s%n", input.getFileName(), edges.vertexCount(),
+                        edges.edgeCount(), r.totalCost, r.tree.size(), ResultWriter.formatMs(r.timeMs), r.ops);
+                r.tree.close();
+            }
+            return;
+        }
+        try (BinaryGraphFile.Reader reader = BinaryGraphFile.open(input)) {
+            BinaryGraphFile.MappedGraph g;
+            while ((g = reader.nextMapped()) != null) {
+                OffHeapMST.Result r = kruskal.compute(g.vertexCount, cursor(g));
+                System.out.printf("%s: V=%d E=%d cost=%.2f tree=%d time=%s ops=%s%n", g.name, g.vertexCount,
+                        g.edgeCount, r.totalCost, r.tree.size(), ResultWriter.formatMs(r.timeMs), r.ops);
+                r.tree.close();
+            }
+        }
+    }
+}
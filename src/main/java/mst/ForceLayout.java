@@ -0,0 +1,412 @@
+package mst;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * Force-directed layout (Fruchterman–Reingold forces) with Barnes–Hut repulsion. Each iteration builds a quadtree over
+ * the current positions and treats cells that are far away relative to their size as one body at their centre of
+ * mass, so an iteration costs O(V log V + E) instead of O(V²). Per-vertex forces are computed in parallel; every
+ * vertex writes only its own displacement, so the result is the same for any pool size.
+ */
+public class ForceLayout {
+    private static final int GRAIN = 256;
+    private static final int MAX_DEPTH = 32;
+    private static final int EMPTY = -1;
+    private static final int INTERNAL = -2;
+    private static final double GRAVITY = 0.01;
+
+    public static class Options {
+        int iterations = 200;
+        double theta = 0.8;
+        long seed = 42;
+        boolean skeleton = true;
+
+        public Options iterations(int iterations) {
+            if (iterations < 0) throw new IllegalArgumentException("iterations must be non-negative: " + iterations);
+            this.iterations = iterations;
+            return this;
+        }
+
+        // Barnes–Hut opening angle: 0 is exact, larger values approximate more aggressively.
+        public Options theta(double theta) {
+            if (theta < 0) throw new IllegalArgumentException("theta must be non-negative: " + theta);
+            this.theta = theta;
+            return this;
+        }
+
+        public Options seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        // Start from a radial drawing of the spanning tree instead of random positions.
+        public Options skeleton(boolean skeleton) {
+            this.skeleton = skeleton;
+            return this;
+        }
+
+        String signature() {
+            return iterations + ":" + theta + ":" + seed + ":" + skeleton;
+        }
+    }
+
+    public static final class Layout {
+        public final float[] x;
+        public final float[] y;
+        public final int iterations;
+        public final double timeMs;
+
+        public Layout(float[] x, float[] y, int iterations, double timeMs) {
+            this.x = x;
+            this.y = y;
+            this.iterations = iterations;
+            this.timeMs = timeMs;
+        }
+    }
+
+    private final Options options;
+    private final ForkJoinPool pool;
+
+    public ForceLayout(Options options) {
+        this(options, ForkJoinPool.commonPool());
+    }
+
+    public ForceLayout(Options options, ForkJoinPool pool) {
+        this.options = options;
+        this.pool = pool;
+    }
+
+    public Options options() { return options; }
+
+    // treeEdges are edge indices of a spanning forest of csr (see GraphRenderer.treeEdges); only used for placement.
+    public Layout compute(CsrGraph csr, int[] treeEdges) {
+        long t0 = System.nanoTime();
+        int n = csr.vertexCount();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        if (options.skeleton) radialPlacement(csr, treeEdges, x, y);
+        else randomPlacement(n, options.seed, x, y);
+
+        if (n > 1) {
+            double[] dx = new double[n];
+            double[] dy = new double[n];
+            QuadTree tree = new QuadTree(n);
+            double start = Math.max(1.0, extent(x, y) / (options.skeleton ? 20 : 10));
+            double theta2 = options.theta * options.theta;
+            for (int it = 0; it < options.iterations; it++) {
+                tree.build(x, y);
+                Parallel.forEach(pool, n, GRAIN, v -> {
+                    tree.repulsion(v, x, y, theta2, dx, dy);
+                    double fx = dx[v] - GRAVITY * x[v], fy = dy[v] - GRAVITY * y[v];
+                    for (int i = csr.begin(v), end = csr.end(v); i < end; i++) {
+                        int u = csr.target(i);
+                        double ex = x[v] - x[u], ey = y[v] - y[u];
+                        double d = Math.sqrt(ex * ex + ey * ey);
+                        fx -= ex * d;
+                        fy -= ey * d;
+                    }
+                    dx[v] = fx;
+                    dy[v] = fy;
+                });
+                // Linear cooling: the step cap shrinks to zero over the iteration budget.
+                double t = start * (1.0 - (double) it / options.iterations);
+                Parallel.forEach(pool, n, GRAIN * 4, v -> {
+                    double len = Math.sqrt(dx[v] * dx[v] + dy[v] * dy[v]);
+                    if (len == 0) return;
+                    double step = Math.min(len, t) / len;
+                    x[v] += dx[v] * step;
+                    y[v] += dy[v] * step;
+                });
+            }
+        }
+
+        float[] fx = new float[n];
+        float[] fy = new float[n];
+        for (int i = 0; i < n; i++) {
+            fx[i] = (float) x[i];
+            fy[i] = (float) y[i];
+        }
+        return new Layout(fx, fy, options.iterations, (System.nanoTime() - t0) / 1_000_000.0);
+    }
+
+    /*
+     * Radial drawing of each tree component: depth sets the radius, and every subtree gets an angular wedge
+     * proportional to its size. Components are packed left to right in rows, largest first.
+     */
+    static void radialPlacement(CsrGraph csr, int[] treeEdges, double[] x, double[] y) {
+        int n = csr.vertexCount();
+        int[] offsets = new int[n + 1];
+        for (int e : treeEdges) {
+            offsets[csr.edgeU(e) + 1]++;
+            offsets[csr.edgeV(e) + 1]++;
+        }
+        for (int i = 0; i < n; i++) offsets[i + 1] += offsets[i];
+        int[] adj = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int e : treeEdges) {
+            int u = csr.edgeU(e), v = csr.edgeV(e);
+            adj[fill[u]++] = v;
+            adj[fill[v]++] = u;
+        }
+
+        int[] order = new int[n];
+        int[] parent = new int[n];
+        int[] depth = new int[n];
+        int[] size = new int[n];
+        double[] wedge = new double[n];
+        double[] angle = new double[n];
+        boolean[] seen = new boolean[n];
+        List<int[]> components = new ArrayList<>();
+        int head = 0;
+        for (int root = 0; root < n; root++) {
+            if (seen[root]) continue;
+            int from = head, tail = head;
+            order[tail++] = root;
+            seen[root] = true;
+            parent[root] = -1;
+            depth[root] = 0;
+            int maxDepth = 0;
+            while (head < tail) {
+                int v = order[head++];
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    int u = adj[i];
+                    if (seen[u]) continue;
+                    seen[u] = true;
+                    parent[u] = v;
+                    depth[u] = depth[v] + 1;
+                    maxDepth = Math.max(maxDepth, depth[u]);
+                    order[tail++] = u;
+                }
+            }
+            for (int i = tail - 1; i >= from; i--) {
+                int v = order[i];
+                size[v] += 1;
+                if (parent[v] >= 0) size[parent[v]] += size[v];
+            }
+            // BFS order visits parents before children, so each child claims the next slice of its parent's wedge.
+            wedge[root] = 2 * Math.PI;
+            angle[root] = 0;
+            for (int i = from; i < tail; i++) {
+                int v = order[i];
+                double next = angle[v] - wedge[v] / 2;
+                for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                    int u = adj[k];
+                    if (parent[u] != v) continue;
+                    double w = wedge[v] * size[u] / Math.max(1, size[v] - 1);
+                    wedge[u] = w;
+                    angle[u] = next + w / 2;
+                    next += w;
+                }
+                x[v] = depth[v] * Math.cos(angle[v]);
+                y[v] = depth[v] * Math.sin(angle[v]);
+            }
+            components.add(new int[]{from, tail, maxDepth});
+        }
+
+        components.sort((a, b) -> Integer.compare(b[2], a[2]));
+        double total = 0;
+        for (int[] c : components) total += 4.0 * (c[2] + 1) * (c[2] + 1);
+        double rowWidth = Math.sqrt(total);
+        double cx = 0, cy = 0, rowHeight = 0;
+        for (int[] c : components) {
+            double r = c[2] + 1;
+            if (cx > 0 && cx + 2 * r > rowWidth) {
+                cx = 0;
+                cy += rowHeight;
+                rowHeight = 0;
+            }
+            for (int i = c[0]; i < c[1]; i++) {
+                int v = order[i];
+                x[v] += cx + r;
+                y[v] += cy + r;
+            }
+            cx += 2 * r;
+            rowHeight = Math.max(rowHeight, 2 * r);
+        }
+        center(x, y);
+    }
+
+    static void randomPlacement(int n, long seed, double[] x, double[] y) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        double side = Math.sqrt(Math.max(1, n));
+        for (int i = 0; i < n; i++) {
+            x[i] = rand.nextDouble() * side;
+            y[i] = rand.nextDouble() * side;
+        }
+        center(x, y);
+    }
+
+    private static void center(double[] x, double[] y) {
+        if (x.length == 0) return;
+        double sx = 0, sy = 0;
+        for (int i = 0; i < x.length; i++) {
+            sx += x[i];
+            sy += y[i];
+        }
+        sx /= x.length;
+        sy /= x.length;
+        for (int i = 0; i < x.length; i++) {
+            x[i] -= sx;
+            y[i] -= sy;
+        }
+    }
+
+    private static double extent(double[] x, double[] y) {
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < x.length; i++) {
+            minX = Math.min(minX, x[i]);
+            maxX = Math.max(maxX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        return Math.max(maxX - minX, maxY - minY);
+    }
+
+    /*
+     * Array-backed quadtree, rebuilt every iteration. A node is EMPTY, a leaf holding one body, or INTERNAL with up
+     * to four children; mass and coordinate sums give the centre of mass. Bodies that would need more than MAX_DEPTH
+     * levels to separate share a leaf.
+     */
+    static final class QuadTree {
+        private int[] child;
+        private int[] body;
+        private double[] mass, sumX, sumY, half, midX, midY;
+        private int nodes;
+        private final ThreadLocal<int[]> stacks = ThreadLocal.withInitial(() -> new int[3 * MAX_DEPTH + 4]);
+
+        QuadTree(int n) {
+            allocate(Math.max(16, 2 * n));
+        }
+
+        private void allocate(int cap) {
+            child = new int[4 * cap];
+            body = new int[cap];
+            mass = new double[cap];
+            sumX = new double[cap];
+            sumY = new double[cap];
+            half = new double[cap];
+            midX = new double[cap];
+            midY = new double[cap];
+        }
+
+        private void grow() {
+            int cap = body.length * 2;
+            child = Arrays.copyOf(child, 4 * cap);
+            body = Arrays.copyOf(body, cap);
+            mass = Arrays.copyOf(mass, cap);
+            sumX = Arrays.copyOf(sumX, cap);
+            sumY = Arrays.copyOf(sumY, cap);
+            half = Arrays.copyOf(half, cap);
+            midX = Arrays.copyOf(midX, cap);
+            midY = Arrays.copyOf(midY, cap);
+        }
+
+        private int node(double cx, double cy, double h) {
+            if (nodes == body.length) grow();
+            int k = nodes++;
+            Arrays.fill(child, 4 * k, 4 * k + 4, -1);
+            body[k] = EMPTY;
+            mass[k] = 0;
+            sumX[k] = 0;
+            sumY[k] = 0;
+            half[k] = h;
+            midX[k] = cx;
+            midY[k] = cy;
+            return k;
+        }
+
+        void build(double[] x, double[] y) {
+            double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < x.length; i++) {
+                minX = Math.min(minX, x[i]);
+                maxX = Math.max(maxX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+            nodes = 0;
+            node((minX + maxX) / 2, (minY + maxY) / 2, Math.max(1e-9, Math.max(maxX - minX, maxY - minY) / 2 * 1.0001));
+            for (int p = 0; p < x.length; p++) insert(p, x, y);
+        }
+
+        private void insert(int p, double[] x, double[] y) {
+            int k = 0;
+            for (int depth = 0; ; depth++) {
+                mass[k] += 1;
+                sumX[k] += x[p];
+                sumY[k] += y[p];
+                int b = body[k];
+                if (b == EMPTY) {
+                    body[k] = p;
+                    return;
+                }
+                if (depth == MAX_DEPTH) return;
+                if (b >= 0) {
+                    body[k] = INTERNAL;
+                    int c = childOf(k, x[b], y[b]);
+                    mass[c] = 1;
+                    sumX[c] = x[b];
+                    sumY[c] = y[b];
+                    body[c] = b;
+                }
+                k = childOf(k, x[p], y[p]);
+            }
+        }
+
+        private int childOf(int k, double px, double py) {
+            int q = (px >= midX[k] ? 1 : 0) | (py >= midY[k] ? 2 : 0);
+            int c = child[4 * k + q];
+            if (c >= 0) return c;
+            double h = half[k] / 2;
+            c = node(midX[k] + ((q & 1) != 0 ? h : -h), midY[k] + ((q & 2) != 0 ? h : -h), h);
+            child[4 * k + q] = c;
+            return c;
+        }
+
+        // Repulsion k²/d with k = 1 from every other body, opening cells whose width exceeds theta times the distance.
+        void repulsion(int v, double[] x, double[] y, double theta2, double[] outX, double[] outY) {
+            int[] stack = stacks.get();
+            double fx = 0, fy = 0;
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int k = stack[--top];
+                double m = mass[k];
+                if (m == 0 || (body[k] == v && m == 1)) continue;
+                double cx = sumX[k], cy = sumY[k];
+                if (body[k] == v) {
+                    cx -= x[v];
+                    cy -= y[v];
+                    m -= 1;
+                }
+                double ex = x[v] - cx / m, ey = y[v] - cy / m;
+                double d2 = ex * ex + ey * ey;
+                double w = 2 * half[k];
+                if (body[k] != INTERNAL || w * w < theta2 * d2) {
+                    if (d2 < 1e-12) {
+                        // Coincident bodies: push apart along a direction derived from the index.
+                        double a = v * 2.399963229728653;
+                        ex = 1e-3 * Math.cos(a);
+                        ey = 1e-3 * Math.sin(a);
+                        d2 = 1e-6;
+                    }
+                    fx += ex * m / d2;
+                    fy += ey * m / d2;
+                    continue;
+                }
+                if (top + 4 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                    stacks.set(stack);
+                }
+                for (int q = 0; q < 4; q++) {
+                    int c = child[4 * k + q];
+                    if (c >= 0) stack[top++] = c;
+                }
+            }
+            outX[v] = fx;
+            outY[v] = fy;
+        }
+    }
+}
@@ -3,57 +3,90 @@ package mst;
 import java.util.*;
 
 public class Graph {
-    private final List<String> vertices;
-    private final List<Edge> edges;
-    private final Map<String, List<Edge>> adj;
+    private final CsrGraph csr;
+    private final int vertexCount;
+    private volatile List<String> vertices;
+    private volatile List<Edge> edges;
 
     public Graph(List<String> vertices, List<Edge> edges) {
-        this.vertices = new ArrayList<>(vertices);
-        this.edges = new ArrayList<>(edges);
-        this.adj = new HashMap<>();
-        for (String v : vertices) adj.put(v, new ArrayList<>());
-        for (Edge e : edges) {
-            if (!adj.containsKey(e.getU()) || !adj.containsKey(e.getV())) {
-                throw new IllegalArgumentException("Edge uses vertex not in vertices list: " + e);
-            }
-            adj.get(e.getU()).add(e);
-            adj.get(e.getV()).add(e);
+        this.vertices = Collections.unmodifiableList(new ArrayList<>(vertices));
+        this.edges = Collections.unmodifiableList(new ArrayList<>(edges));
+        this.csr = CsrGraph.of(this.vertices, this.edges);
+        this.vertexCount = this.vertices.size();
+    }
+
+    public Graph(CsrGraph csr) {
+        this.csr = csr;
+        this.vertexCount = csr.vertexCount();
+    }
+
+    public CsrGraph csr() { return csr; }
+
+    public List<String> getVertices() {
+        List<String> list = vertices;
+        if (list == null) {
+            String[] labels = new String[csr.vertexCount()];
+            for (int i = 0; i < labels.length; i++) labels[i] = csr.label(i);
+            list = Collections.unmodifiableList(Arrays.asList(labels));
+            vertices = list;
+        }
+        return list;
+    }
+
+    public List<Edge> getEdges() {
+        List<Edge> list = edges;
+        if (list == null) {
+            Edge[] arr = new Edge[csr.edgeCount()];
+            for (int e = 0; e < arr.length; e++) arr[e] = csr.toEdge(e);
+            list = Collections.unmodifiableList(Arrays.asList(arr));
+            edges = list;
         }
+        return list;
     }
 
-    public List<String> getVertices() { return Collections.unmodifiableList(vertices); }
-    public List<Edge> getEdges() { return Collections.unmodifiableList(edges); }
     public List<Edge> adj(String v) {
-        List<Edge> list = adj.get(v);
-        return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+        int idx = csr.indexOf(v);
+        if (idx < 0) return Collections.emptyList();
+        return new AdjView(getEdges(), csr, idx);
     }
 
-    public int V() { return vertices.size(); }
-    public int E() { return edges.size(); }
+    public int V() { return vertexCount; }
+    public int E() { return csr.edgeCount(); }
 
     public boolean isConnected() {
-        if (vertices.isEmpty()) return true;
-        Set<String> visited = new HashSet<>();
-        Deque<String> stack = new ArrayDeque<>();
-        stack.push(vertices.get(0));
-        while (!stack.isEmpty()) {
-            String cur = stack.pop();
-            if (!visited.add(cur)) continue;
-            for (Edge e : adj(cur)) {
-                String w = e.other(cur);
-                if (!visited.contains(w)) stack.push(w);
-            }
-        }
-        return visited.size() == vertices.size();
+        return Components.of(csr).count() <= 1;
     }
 
     public boolean hasCycle() {
-        UnionFind uf = new UnionFind(vertices);
-        for (Edge e : edges) {
+        UnionFind uf = new UnionFind(getVertices());
+        for (Edge e : getEdges()) {
             String u = e.getU(), v = e.getV();
             if (uf.find(u).equals(uf.find(v))) return true;
             uf.union(u, v);
         }
         return false;
     }
+
+    private static final class AdjView extends AbstractList<Edge> implements RandomAccess {
+        private final List<Edge> edges;
+        private final CsrGraph csr;
+        private final int from;
+        private final int size;
+
+        AdjView(List<Edge> edges, CsrGraph csr, int v) {
+            this.edges = edges;
+            this.csr = csr;
+            this.from = csr.begin(v);
+            this.size = csr.degree(v);
+        }
+
+        @Override
+        public Edge get(int i) {
+            if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+            return edges.get(csr.edgeAt(from + i));
+        }
+
+        @Override
+        public int size() { return size; }
+    }
 }
@@ -0,0 +1,251 @@
+package mst;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+public class GraphGenerator {
+    public enum Family { SPARSE, DENSE, GRID, POWERLAW, FOREST }
+
+    // Trees in a FOREST graph unless components(...) says otherwise; capped at the vertex count.
+    public static final int DEFAULT_FOREST_COMPONENTS = 4;
+
+    private interface EdgeSink {
+        void edge(int u, int v) throws IOException;
+    }
+
+    private final Family family;
+    private final int vertices;
+    private final long edges;
+    private final long seed;
+    private int maxWeight = 50;
+    private boolean integerWeights = true;
+    private int components = 0; // 0: the family default
+    private double exponent = 2.5;
+    private int pointDims = 0;
+
+    public GraphGenerator(Family family, int vertices, long edges, long seed) {
+        if (vertices < 1) throw new IllegalArgumentException("vertices must be positive: " + vertices);
+        this.family = family;
+        this.vertices = vertices;
+        this.edges = edges;
+        this.seed = seed;
+    }
+
+    public GraphGenerator maxWeight(int maxWeight) {
+        if (maxWeight < 1) throw new IllegalArgumentException("maxWeight must be positive: " + maxWeight);
+        this.maxWeight = maxWeight;
+        return this;
+    }
+
+    public GraphGenerator integerWeights(boolean integerWeights) {
+        this.integerWeights = integerWeights;
+        return this;
+    }
+
+    public GraphGenerator components(int components) {
+        if (components < 1 || components > vertices) throw new IllegalArgumentException("components out of range: " + components);
+        this.components = components;
+        return this;
+    }
+
+    public GraphGenerator exponent(double exponent) {
+        if (exponent <= 2) throw new IllegalArgumentException("power-law exponent must be > 2: " + exponent);
+        this.exponent = exponent;
+        return this;
+    }
+
+    // Writes uniform random points in [0, maxWeight)^dims instead of edges; the family is ignored.
+    public GraphGenerator points(int dims) {
+        if (dims < 1) throw new IllegalArgumentException("dims must be positive: " + dims);
+        this.pointDims = dims;
+        return this;
+    }
+
+    // Writes {"graphs": [...]} in the Runner input schema; edges are generated and written one at a time.
+    public void write(Writer out, int graphs, boolean pretty) throws IOException {
+        SplittableRandom root = new SplittableRandom(seed);
+        JsonWriter json = new JsonWriter(out);
+        if (pretty) json.setIndent("  ");
+        json.beginObject();
+        json.name("graphs");
+        json.beginArray();
+        for (int id = 1; id <= graphs; id++) {
+            SplittableRandom rand = root.split();
+            int n = family == Family.GRID && pointDims == 0 ? gridSide() * gridSide() : vertices;
+            json.beginObject();
+            json.name("id").value(id);
+            if (pointDims > 0) {
+                writePoints(json, rand, n);
+                json.endObject();
+                continue;
+            }
+            json.name("vertices");
+            json.beginArray();
+            for (int v = 1; v <= n; v++) json.value(v);
+            json.endArray();
+            json.name("edges");
+            json.beginArray();
+            generate(rand, n, (u, v) -> {
+                json.beginObject();
+                json.name("u").value(u + 1);
+                json.name("v").value(v + 1);
+                if (integerWeights) json.name("w").value(1 + rand.nextInt(maxWeight));
+                else json.name("w").value(rand.nextDouble() * maxWeight);
+                json.endObject();
+            });
+            json.endArray();
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+    }
+
+    private void writePoints(JsonWriter json, SplittableRandom rand, int n) throws IOException {
+        json.name("points");
+        json.beginArray();
+        for (int i = 0; i < n; i++) {
+            json.beginArray();
+            for (int d = 0; d < pointDims; d++) json.value(rand.nextDouble() * maxWeight);
+            json.endArray();
+        }
+        json.endArray();
+    }
+
+    private int gridSide() {
+        return Math.max(1, (int) Math.round(Math.sqrt(vertices)));
+    }
+
+    private void generate(SplittableRandom rand, int n, EdgeSink sink) throws IOException {
+        switch (family) {
+            case SPARSE:
+                randomTree(rand, 0, n, sink);
+                for (long e = n - 1; e < edges; e++) sink.edge(rand.nextInt(n), rand.nextInt(n));
+                break;
+            case DENSE:
+                dense(rand, n, sink);
+                break;
+            case GRID:
+                int side = gridSide();
+                for (int r = 0; r < side; r++) {
+                    for (int c = 0; c < side; c++) {
+                        int v = r * side + c;
+                        if (c + 1 < side) sink.edge(v, v + 1);
+                        if (r + 1 < side) sink.edge(v, v + side);
+                    }
+                }
+                break;
+            case POWERLAW:
+                powerLaw(rand, n, sink);
+                break;
+            case FOREST:
+                forest(rand, n, sink);
+                break;
+            default:
+                throw new IllegalStateException("Unknown family " + family);
+        }
+    }
+
+    // Vertex i attaches to a uniformly chosen earlier vertex, which yields a random recursive tree.
+    private static void randomTree(SplittableRandom rand, int from, int to, EdgeSink sink) throws IOException {
+        for (int v = from + 1; v < to; v++) sink.edge(from + rand.nextInt(v - from), v);
+    }
+
+    private void dense(SplittableRandom rand, int n, EdgeSink sink) throws IOException {
+        double pairs = (double) n * (n - 1) / 2;
+        double p = edges > 0 ? Math.min(1.0, edges / pairs) : 0.9;
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                if (v == u + 1 || rand.nextDouble() < p) sink.edge(u, v);
+            }
+        }
+    }
+
+    // Chung-Lu style: endpoints are drawn from a Zipf-like vertex distribution, so memory stays O(V).
+    private void powerLaw(SplittableRandom rand, int n, EdgeSink sink) throws IOException {
+        double[] cdf = new double[n];
+        double alpha = 1.0 / (exponent - 1);
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += Math.pow(i + 1, -alpha);
+            cdf[i] = sum;
+        }
+        randomTree(rand, 0, n, sink);
+        for (long e = n - 1; e < edges; e++) sink.edge(sample(cdf, rand), sample(cdf, rand));
+    }
+
+    private static int sample(double[] cdf, SplittableRandom rand) {
+        double x = rand.nextDouble() * cdf[cdf.length - 1];
+        int i = Arrays.binarySearch(cdf, x);
+        return i >= 0 ? i : Math.min(cdf.length - 1, -i - 1);
+    }
+
+    private void forest(SplittableRandom rand, int n, EdgeSink sink) throws IOException {
+        int components = this.components > 0 ? this.components : Math.min(DEFAULT_FOREST_COMPONENTS, n);
+        int size = n / components;
+        long extra = Math.max(0, edges - (n - components));
+        for (int c = 0; c < components; c++) {
+            int from = c * size;
+            int to = c == components - 1 ? n : from + size;
+            randomTree(rand, from, to, sink);
+            long share = extra / components + (c < extra % components ? 1 : 0);
+            for (long e = 0; e < share; e++) {
+                sink.edge(from + rand.nextInt(to - from), from + rand.nextInt(to - from));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: GraphGenerator <output.json> [--family=sparse|dense|grid|powerlaw|forest]"
+                    + " [--vertices=N] [--edges=M] [--graphs=K] [--seed=S] [--max-weight=W] [--double-weights]"
+                    + " [--components=C (forest: 4)] [--exponent=X] [--points=D] [--pretty]");
+            System.exit(2);
+        }
+        Path output = Paths.get(args[0]);
+        Family family = Family.SPARSE;
+        int vertices = 1000;
+        long edges = -1;
+        int graphs = 1;
+        long seed = 42;
+        int maxWeight = 50;
+        boolean integerWeights = true;
+        int components = 0;
+        double exponent = 2.5;
+        boolean pretty = false;
+        int pointDims = 0;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            String value = arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : "";
+            if (arg.startsWith("--family=")) family = Family.valueOf(value.toUpperCase(Locale.ROOT));
+            else if (arg.startsWith("--vertices=")) vertices = Integer.parseInt(value);
+            else if (arg.startsWith("--edges=")) edges = Long.parseLong(value);
+            else if (arg.startsWith("--graphs=")) graphs = Integer.parseInt(value);
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(value);
+            else if (arg.startsWith("--max-weight=")) maxWeight = Integer.parseInt(value);
+            else if (arg.equals("--double-weights")) integerWeights = false;
+            else if (arg.startsWith("--components=")) components = Integer.parseInt(value);
+            else if (arg.startsWith("--exponent=")) exponent = Double.parseDouble(value);
+            else if (arg.startsWith("--points=")) pointDims = Integer.parseInt(value);
+            else if (arg.equals("--pretty")) pretty = true;
+            else throw new IllegalArgumentException("Unknown option: " + arg);
+        }
+        if (edges < 0) edges = family == Family.DENSE ? 0 : 4L * vertices;
+
+        GraphGenerator gen = new GraphGenerator(family, vertices, edges, seed)
+                .maxWeight(maxWeight)
+                .integerWeights(integerWeights)
+                .exponent(exponent);
+        if (components > 0) gen.components(components);
+        if (pointDims > 0) gen.points(pointDims);
+        long t0 = System.nanoTime();
+        try (Writer w = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            gen.write(w, graphs, pretty);
+        }
+        System.out.printf("Generated %d %s graph(s) in %.1f ms: %s%n",
+                graphs, pointDims > 0 ? pointDims + "-d point" : family.name().toLowerCase(Locale.ROOT), (System.nanoTime() - t0) / 1_000_000.0, output);
+    }
+}
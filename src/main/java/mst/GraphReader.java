@@ -0,0 +1,210 @@
+package mst;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+
+public class GraphReader implements GraphSource {
+    public static class Entry {
+        public final String name;
+        public final Graph graph;
+        // Set for geometric entries, whose graph has the vertices but no edges.
+        public final PointSet points;
+
+        public Entry(String name, Graph graph) {
+            this(name, graph, null);
+        }
+
+        public Entry(String name, Graph graph, PointSet points) {
+            this.name = name;
+            this.graph = graph;
+            this.points = points;
+        }
+    }
+
+    private final JsonReader in;
+    private final String source;
+    private boolean started = false;
+    private boolean finished = false;
+    private boolean wrapped = false;
+
+    private int[] vertexIds = new int[16];
+    private int[] edgeU = new int[16];
+    private int[] edgeV = new int[16];
+    private double[] weights = new double[16];
+    private double[] coords = new double[16];
+
+    public GraphReader(Reader reader, String source) {
+        this.in = new JsonReader(reader);
+        this.source = source;
+    }
+
+    public static GraphReader open(Path path) throws IOException {
+        Reader r = new BufferedReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8), 1 << 16);
+        return new GraphReader(r, path.getFileName().toString());
+    }
+
+    @Override
+    public Entry next() throws IOException {
+        if (finished) return null;
+        if (!started) {
+            started = true;
+            openGraphsArray();
+        }
+        if (!in.hasNext()) {
+            in.endArray();
+            if (wrapped) {
+                while (in.hasNext()) {
+                    in.nextName();
+                    in.skipValue();
+                }
+                in.endObject();
+            }
+            finished = true;
+            return null;
+        }
+        return readGraph();
+    }
+
+    private void openGraphsArray() throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.BEGIN_ARRAY) {
+            in.beginArray();
+            return;
+        }
+        if (token == JsonToken.BEGIN_OBJECT) {
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("graphs") && in.peek() == JsonToken.BEGIN_ARRAY) {
+                    in.beginArray();
+                    wrapped = true;
+                    return;
+                }
+                in.skipValue();
+            }
+        }
+        throw new IllegalStateException("Invalid JSON format in " + source);
+    }
+
+    private Entry readGraph() throws IOException {
+        String name = "unnamed";
+        int n = 0;
+        int m = 0;
+        boolean hasVertices = false;
+        int count = -1;
+        int points = -1;
+        int dims = 0;
+        double epsilon = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    name = "graph_" + in.nextString();
+                    break;
+                case "vertices":
+                    hasVertices = true;
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        if (n == vertexIds.length) vertexIds = Arrays.copyOf(vertexIds, n * 2);
+                        vertexIds[n++] = in.nextInt();
+                    }
+                    in.endArray();
+                    break;
+                case "n":
+                    count = in.nextInt();
+                    break;
+                case "points":
+                    // [[x, y], [x, y], ...]; every point must have the same number of coordinates.
+                    points = 0;
+                    int used = 0;
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        int before = used;
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            if (used == coords.length) coords = Arrays.copyOf(coords, used * 2);
+                            coords[used++] = in.nextDouble();
+                        }
+                        in.endArray();
+                        if (points == 0) dims = used - before;
+                        if (used - before != dims || dims == 0) {
+                            throw new IllegalStateException("Point with " + (used - before) + " coordinates, expected "
+                                    + dims + " at " + in.getPath() + " in " + source);
+                        }
+                        points++;
+                    }
+                    in.endArray();
+                    break;
+                case "epsilon":
+                    epsilon = in.nextDouble();
+                    break;
+                case "edges":
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        if (m == edgeU.length) growEdges(m * 2);
+                        readEdge(m++);
+                    }
+                    in.endArray();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (points >= 0 && !hasVertices && count < 0) count = points;
+        if (!hasVertices && count > 0) {
+            if (vertexIds.length < count) vertexIds = new int[count];
+            for (int i = 0; i < count; i++) vertexIds[i] = i;
+            n = count;
+        }
+        CsrGraph csr = CsrGraph.fromIds(vertexIds, n, edgeU, edgeV, Arrays.copyOf(weights, m), m);
+        if (points < 0) return new Entry(name, new Graph(csr));
+        if (m > 0) throw new IllegalStateException(name + " has both points and edges in " + source);
+        if (csr.vertexCount() != points) {
+            throw new IllegalStateException(name + " has " + points + " points for " + csr.vertexCount() + " distinct vertices in " + source);
+        }
+        PointSet ps = new PointSet(Math.max(1, dims), Arrays.copyOf(coords, points * dims), points, epsilon);
+        return new Entry(name, new Graph(csr), ps);
+    }
+
+    private void readEdge(int e) throws IOException {
+        int seen = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "u":
+                    edgeU[e] = in.nextInt();
+                    seen |= 1;
+                    break;
+                case "v":
+                    edgeV[e] = in.nextInt();
+                    seen |= 2;
+                    break;
+                case "w":
+                    weights[e] = in.nextDouble();
+                    seen |= 4;
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        if (seen != 7) throw new IllegalStateException("Edge without u/v/w at " + in.getPath() + " in " + source);
+    }
+
+    private void growEdges(int capacity) {
+        edgeU = Arrays.copyOf(edgeU, capacity);
+        edgeV = Arrays.copyOf(edgeV, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
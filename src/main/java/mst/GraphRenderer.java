@@ -0,0 +1,503 @@
+package mst;
+
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import javax.imageio.ImageIO;
+
+/*
+ * Headless rendering for large graphs. A Scene resolves every drawn edge to vertex indices and canvas coordinates
+ * once, so painting a tile allocates nothing per edge and SVG is streamed straight to the writer. Level of detail:
+ * mstOnly drops non-tree edges, maxEdges subsamples them with a fixed stride, and weight and vertex labels are only
+ * drawn while the graph is at or below labelThreshold edges. PNG output is cut into tiles so only one tile is held
+ * per worker.
+ */
+public class GraphRenderer {
+    private static final Color BACKGROUND_EDGE = Color.LIGHT_GRAY;
+    private static final Color TREE_EDGE = Color.RED;
+    private static final Color VERTEX_FILL = new Color(255, 230, 150);
+    private static final Font TITLE_FONT = new Font("SansSerif", Font.BOLD, 18);
+    private static final int MARGIN = 40;
+    private static final int ANTIALIAS_EDGES = 2_000;
+    private static final int SVG_PATH_EDGES = 4096;
+
+    public static class Options {
+        int width = 1600;
+        int height = 1200;
+        int tileSize = 4096;
+        int maxEdges = 50_000;
+        int labelThreshold = 200;
+        boolean mstOnly = false;
+        boolean svg = false;
+        ForceLayout.Options layout = null;
+        int forceMaxEdges = Integer.MAX_VALUE;
+        LayoutCache layoutCache = null;
+
+        public Options size(int width, int height) {
+            if (width < 1 || height < 1) throw new IllegalArgumentException("size must be positive: " + width + "x" + height);
+            this.width = width;
+            this.height = height;
+            return this;
+        }
+
+        public Options tileSize(int tileSize) {
+            if (tileSize < 1) throw new IllegalArgumentException("tile size must be positive: " + tileSize);
+            this.tileSize = tileSize;
+            return this;
+        }
+
+        // Upper bound on drawn non-tree edges; tree edges are always drawn.
+        public Options maxEdges(int maxEdges) {
+            if (maxEdges < 0) throw new IllegalArgumentException("maxEdges must be non-negative: " + maxEdges);
+            this.maxEdges = maxEdges;
+            return this;
+        }
+
+        public Options labelThreshold(int labelThreshold) {
+            this.labelThreshold = labelThreshold;
+            return this;
+        }
+
+        public Options mstOnly(boolean mstOnly) {
+            this.mstOnly = mstOnly;
+            return this;
+        }
+
+        public Options svg(boolean svg) {
+            this.svg = svg;
+            return this;
+        }
+
+        // Force-directed placement instead of the circle; null switches back to the circle.
+        public Options layout(ForceLayout.Options layout) {
+            this.layout = layout;
+            return this;
+        }
+
+        // Graphs with more edges than this fall back to the circle even when a force layout is set.
+        public Options forceMaxEdges(int forceMaxEdges) {
+            if (forceMaxEdges < 0) throw new IllegalArgumentException("forceMaxEdges must be non-negative: " + forceMaxEdges);
+            this.forceMaxEdges = forceMaxEdges;
+            return this;
+        }
+
+        public Options layoutCache(LayoutCache layoutCache) {
+            this.layoutCache = layoutCache;
+            return this;
+        }
+
+        // The force layout options that apply to csr, or null for the circle.
+        ForceLayout.Options layoutFor(CsrGraph csr) {
+            return csr.edgeCount() > forceMaxEdges ? null : layout;
+        }
+    }
+
+    // A graph resolved for drawing: canvas coordinates per vertex and endpoint indices per drawn edge.
+    public static final class Scene {
+        final String title;
+        final int width;
+        final int height;
+        final float[] x;
+        final float[] y;
+        final String[] vertexLabels;
+        final int[] treeU, treeV;
+        final int[] restU, restV;
+        final String[] treeWeights, restWeights;
+        final float vertexSize;
+        final boolean antialias;
+
+        private Scene(String title, Options opt, CsrGraph csr, int[] tree, float[] lx, float[] ly) {
+            int n = csr.vertexCount();
+            this.title = title;
+            this.width = opt.width;
+            this.height = opt.height;
+            this.x = new float[n];
+            this.y = new float[n];
+            fit(lx, ly, opt.width, opt.height, x, y);
+
+            boolean labels = csr.edgeCount() <= opt.labelThreshold;
+            boolean[] inTree = new boolean[csr.edgeCount()];
+            for (int e : tree) inTree[e] = true;
+            int others = opt.mstOnly ? 0 : csr.edgeCount() - tree.length;
+            int keep = Math.min(others, opt.maxEdges);
+            // Evenly strided subsample in input order, so repeated renders pick the same edges.
+            long stride = keep == 0 ? 1 : ((long) others << 16) / keep;
+
+            treeU = new int[tree.length];
+            treeV = new int[tree.length];
+            treeWeights = labels ? new String[tree.length] : null;
+            for (int i = 0; i < tree.length; i++) {
+                treeU[i] = csr.edgeU(tree[i]);
+                treeV[i] = csr.edgeV(tree[i]);
+                if (labels) treeWeights[i] = weightLabel(csr.weight(tree[i]));
+            }
+            restU = new int[keep];
+            restV = new int[keep];
+            restWeights = labels ? new String[keep] : null;
+            long next = 0;
+            int seen = 0, kept = 0;
+            for (int e = 0; e < csr.edgeCount() && kept < keep; e++) {
+                if (inTree[e]) continue;
+                if (((long) seen++ << 16) >= next) {
+                    restU[kept] = csr.edgeU(e);
+                    restV[kept] = csr.edgeV(e);
+                    if (labels) restWeights[kept] = weightLabel(csr.weight(e));
+                    kept++;
+                    next += stride;
+                }
+            }
+
+            vertexLabels = labels ? new String[n] : null;
+            if (labels) for (int v = 0; v < n; v++) vertexLabels[v] = csr.label(v);
+            double spacing = Math.sqrt((double) opt.width * opt.height / Math.max(1, n));
+            vertexSize = labels ? 22f : (float) Math.max(2.0, Math.min(22.0, spacing / 4));
+            antialias = tree.length + keep <= ANTIALIAS_EDGES;
+        }
+
+        public int drawnEdges() { return treeU.length + restU.length; }
+
+        // Paints the window [x0, x0+w) x [y0, y0+h) of the canvas; edges wholly outside it are skipped.
+        void paint(Graphics2D g2, int x0, int y0, int w, int h) {
+            g2.setColor(Color.WHITE);
+            g2.fillRect(0, 0, w, h);
+            g2.translate(-x0, -y0);
+            if (antialias) g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            boolean labels = vertexLabels != null;
+            float pad = vertexSize;
+            float left = x0 - pad, top = y0 - pad, right = x0 + w + pad, bottom = y0 + h + pad;
+            Line2D.Float line = new Line2D.Float();
+
+            g2.setStroke(new BasicStroke(labels ? 2f : 1f));
+            g2.setColor(BACKGROUND_EDGE);
+            drawEdges(g2, line, restU, restV, left, top, right, bottom);
+            if (antialias) g2.setStroke(new BasicStroke(labels ? 3f : 1.5f));
+            g2.setColor(TREE_EDGE);
+            drawEdges(g2, line, treeU, treeV, left, top, right, bottom);
+            if (labels) {
+                g2.setColor(Color.DARK_GRAY);
+                drawWeights(g2, restU, restV, restWeights);
+                drawWeights(g2, treeU, treeV, treeWeights);
+            }
+
+            g2.setStroke(new BasicStroke(1f));
+            Ellipse2D.Float dot = new Ellipse2D.Float();
+            float r = vertexSize / 2;
+            for (int v = 0; v < x.length; v++) {
+                if (x[v] < left || x[v] > right || y[v] < top || y[v] > bottom) continue;
+                dot.setFrame(x[v] - r, y[v] - r, vertexSize, vertexSize);
+                g2.setColor(VERTEX_FILL);
+                g2.fill(dot);
+                if (vertexSize >= 8) {
+                    g2.setColor(Color.BLACK);
+                    g2.draw(dot);
+                }
+                if (labels) {
+                    g2.setColor(Color.BLACK);
+                    g2.drawString(vertexLabels[v], x[v] - 5, y[v] - 10);
+                }
+            }
+
+            g2.setFont(TITLE_FONT);
+            g2.setColor(Color.BLACK);
+            g2.drawString(title + "  (Red = MST edges)", 20, 30);
+            g2.translate(x0, y0);
+        }
+
+        private void drawEdges(Graphics2D g2, Line2D.Float line, int[] us, int[] vs,
+                               float left, float top, float right, float bottom) {
+            for (int i = 0; i < us.length; i++) {
+                float x1 = x[us[i]], y1 = y[us[i]], x2 = x[vs[i]], y2 = y[vs[i]];
+                if (Math.max(x1, x2) < left || Math.min(x1, x2) > right) continue;
+                if (Math.max(y1, y2) < top || Math.min(y1, y2) > bottom) continue;
+                if (!antialias) {
+                    // Thin integer lines stay on Java2D's fast path; shapes go through the stroker.
+                    g2.drawLine(Math.round(x1), Math.round(y1), Math.round(x2), Math.round(y2));
+                    continue;
+                }
+                line.setLine(x1, y1, x2, y2);
+                g2.draw(line);
+            }
+        }
+
+        private void drawWeights(Graphics2D g2, int[] us, int[] vs, String[] weights) {
+            for (int i = 0; i < us.length; i++) {
+                g2.drawString(weights[i], (x[us[i]] + x[vs[i]]) / 2, (y[us[i]] + y[vs[i]]) / 2);
+            }
+        }
+
+        public void writeSvg(Writer out) throws IOException {
+            out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\"" + height
+                    + "\" viewBox=\"0 0 " + width + " " + height + "\">\n");
+            out.write("<rect width=\"100%\" height=\"100%\" fill=\"white\"/>\n");
+            boolean labels = vertexLabels != null;
+            svgEdges(out, restU, restV, "#c0c0c0", labels ? "2" : "1");
+            svgEdges(out, treeU, treeV, "red", labels ? "3" : "1.5");
+            if (labels) {
+                out.write("<g font-family=\"SansSerif\" font-size=\"12\" fill=\"#404040\">\n");
+                svgWeights(out, restU, restV, restWeights);
+                svgWeights(out, treeU, treeV, treeWeights);
+                out.write("</g>\n");
+            }
+            out.write("<g fill=\"#ffe696\"" + (vertexSize >= 8 ? " stroke=\"black\"" : "") + ">\n");
+            String r = coord(vertexSize / 2);
+            for (int v = 0; v < x.length; v++) {
+                out.write("<circle cx=\"");
+                out.write(coord(x[v]));
+                out.write("\" cy=\"");
+                out.write(coord(y[v]));
+                out.write("\" r=\"");
+                out.write(r);
+                out.write("\"/>\n");
+            }
+            out.write("</g>\n");
+            if (labels) {
+                out.write("<g font-family=\"SansSerif\" font-size=\"12\">\n");
+                for (int v = 0; v < x.length; v++) svgText(out, x[v] - 5, y[v] - 10, vertexLabels[v]);
+                out.write("</g>\n");
+            }
+            out.write("<text x=\"20\" y=\"30\" font-family=\"SansSerif\" font-size=\"18\" font-weight=\"bold\">");
+            out.write(escapeXml(title + "  (Red = MST edges)"));
+            out.write("</text>\n</svg>\n");
+        }
+
+        // Edges go out as batches of M/L segments in one path element rather than one element per edge.
+        private void svgEdges(Writer out, int[] us, int[] vs, String color, String width) throws IOException {
+            for (int from = 0; from < us.length; from += SVG_PATH_EDGES) {
+                out.write("<path fill=\"none\" stroke=\"" + color + "\" stroke-width=\"" + width + "\" d=\"");
+                int to = Math.min(us.length, from + SVG_PATH_EDGES);
+                for (int i = from; i < to; i++) {
+                    out.write('M');
+                    out.write(coord(x[us[i]]));
+                    out.write(' ');
+                    out.write(coord(y[us[i]]));
+                    out.write('L');
+                    out.write(coord(x[vs[i]]));
+                    out.write(' ');
+                    out.write(coord(y[vs[i]]));
+                }
+                out.write("\"/>\n");
+            }
+        }
+
+        private void svgWeights(Writer out, int[] us, int[] vs, String[] weights) throws IOException {
+            for (int i = 0; i < us.length; i++) {
+                svgText(out, (x[us[i]] + x[vs[i]]) / 2, (y[us[i]] + y[vs[i]]) / 2, weights[i]);
+            }
+        }
+
+        private static void svgText(Writer out, float x, float y, String text) throws IOException {
+            out.write("<text x=\"");
+            out.write(coord(x));
+            out.write("\" y=\"");
+            out.write(coord(y));
+            out.write("\">");
+            out.write(escapeXml(text));
+            out.write("</text>\n");
+        }
+
+        // Writes the canvas as PNG tiles of at most tileSize pixels a side; a single tile keeps the plain name.
+        public List<Path> writePng(Path dir, String baseName, int tileSize) throws IOException {
+            int cols = (width + tileSize - 1) / tileSize;
+            int rows = (height + tileSize - 1) / tileSize;
+            List<Path> written = new ArrayList<>();
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    int x0 = c * tileSize, y0 = r * tileSize;
+                    int w = Math.min(tileSize, width - x0), h = Math.min(tileSize, height - y0);
+                    BufferedImage tile = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+                    Graphics2D g2 = tile.createGraphics();
+                    try {
+                        paint(g2, x0, y0, w, h);
+                    } finally {
+                        g2.dispose();
+                    }
+                    String name = rows * cols == 1 ? baseName + ".png" : baseName + "_r" + r + "_c" + c + ".png";
+                    Path file = dir.resolve(name);
+                    ImageIO.write(tile, "png", file.toFile());
+                    written.add(file);
+                }
+            }
+            return written;
+        }
+    }
+
+    private GraphRenderer() {}
+
+    public static Scene scene(String title, Graph g, List<Edge> mst, Options opt) {
+        return scene(title, title, g, mst, opt);
+    }
+
+    // graphId keys the layout cache; the circle layout is used when opt has no force layout for this graph.
+    public static Scene scene(String graphId, String title, Graph g, List<Edge> mst, Options opt) {
+        CsrGraph csr = g.csr();
+        int[] tree = treeEdges(csr, mst);
+        ForceLayout.Options force = opt.layoutFor(csr);
+        if (force == null) {
+            float[][] circle = circle(csr.vertexCount());
+            return new Scene(title, opt, csr, tree, circle[0], circle[1]);
+        }
+        ForceLayout engine = new ForceLayout(force);
+        ForceLayout.Layout layout = opt.layoutCache != null
+                ? opt.layoutCache.get(graphId, csr, tree, engine)
+                : engine.compute(csr, tree);
+        return new Scene(title, opt, csr, tree, layout.x, layout.y);
+    }
+
+    public static Scene scene(String title, CsrGraph csr, int[] treeEdges, float[] x, float[] y, Options opt) {
+        if (x.length != csr.vertexCount() || y.length != csr.vertexCount()) {
+            throw new IllegalArgumentException("Expected " + csr.vertexCount() + " positions, got " + x.length);
+        }
+        return new Scene(title, opt, csr, treeEdges, x, y);
+    }
+
+    // Unit-circle placement in vertex order; Scene scales any layout to the canvas.
+    public static float[][] circle(int n) {
+        float[] x = new float[n];
+        float[] y = new float[n];
+        for (int i = 0; i < n; i++) {
+            double angle = 2 * Math.PI * i / n;
+            x[i] = (float) Math.cos(angle);
+            y[i] = (float) Math.sin(angle);
+        }
+        return new float[][]{x, y};
+    }
+
+    // Maps tree edges back to graph edge indices; parallel edges are matched at most once each.
+    static int[] treeEdges(CsrGraph csr, List<Edge> mst) {
+        boolean[] used = new boolean[csr.edgeCount()];
+        int[] out = new int[mst.size()];
+        int k = 0;
+        for (Edge t : mst) {
+            int u = csr.indexOf(t.getU());
+            int v = csr.indexOf(t.getV());
+            if (u < 0 || v < 0) throw new IllegalArgumentException("Tree edge not in graph: " + t);
+            int found = -1;
+            for (int i = csr.begin(u), end = csr.end(u); i < end && found < 0; i++) {
+                int e = csr.edgeAt(i);
+                if (csr.target(i) == v && !used[e] && Double.compare(csr.weight(e), t.getWeight()) == 0) found = e;
+            }
+            if (found < 0) throw new IllegalArgumentException("Tree edge not in graph: " + t);
+            used[found] = true;
+            out[k++] = found;
+        }
+        return out;
+    }
+
+    static void fit(float[] lx, float[] ly, int width, int height, float[] x, float[] y) {
+        if (lx.length == 0) return;
+        float minX = Float.POSITIVE_INFINITY, maxX = Float.NEGATIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < lx.length; i++) {
+            minX = Math.min(minX, lx[i]);
+            maxX = Math.max(maxX, lx[i]);
+            minY = Math.min(minY, ly[i]);
+            maxY = Math.max(maxY, ly[i]);
+        }
+        // Title band on top; one uniform scale keeps the layout's aspect ratio.
+        float top = MARGIN + 20;
+        float availW = Math.max(1, width - 2 * MARGIN), availH = Math.max(1, height - top - MARGIN);
+        float spanX = maxX - minX, spanY = maxY - minY;
+        float scale = Math.min(spanX > 0 ? availW / spanX : Float.MAX_VALUE, spanY > 0 ? availH / spanY : Float.MAX_VALUE);
+        if (scale == Float.MAX_VALUE) scale = 0;
+        float offX = MARGIN + (availW - spanX * scale) / 2, offY = top + (availH - spanY * scale) / 2;
+        for (int i = 0; i < lx.length; i++) {
+            x[i] = offX + (lx[i] - minX) * scale;
+            y[i] = offY + (ly[i] - minY) * scale;
+        }
+    }
+
+    static String weightLabel(double w) {
+        if (w == Math.rint(w) && Math.abs(w) < 1e15) return Long.toString((long) w);
+        return String.format("%.0f", w);
+    }
+
+    // One decimal place without going through String.format.
+    static String coord(float v) {
+        long tenths = Math.round(v * 10.0);
+        String sign = tenths < 0 ? "-" : "";
+        tenths = Math.abs(tenths);
+        return tenths % 10 == 0 ? sign + tenths / 10 : sign + tenths / 10 + "." + tenths % 10;
+    }
+
+    static String escapeXml(String s) {
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String rep = c == '<' ? "&lt;" : c == '>' ? "&gt;" : c == '&' ? "&amp;" : c == '"' ? "&quot;" : null;
+            if (rep == null) {
+                if (sb != null) sb.append(c);
+                continue;
+            }
+            if (sb == null) sb = new StringBuilder(s.length() + 16).append(s, 0, i);
+            sb.append(rep);
+        }
+        return sb == null ? s : sb.toString();
+    }
+
+    static String fileName(String title) {
+        return title.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    public static List<Path> render(String graphId, String title, Graph g, Path outDir, Options opt) throws IOException {
+        Scene scene = scene(graphId, title, g, BatchSolver.kruskal(g).mstEdges, opt);
+        Files.createDirectories(outDir);
+        if (!opt.svg) return scene.writePng(outDir, fileName(title), opt.tileSize);
+        Path file = outDir.resolve(fileName(title) + ".svg");
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            scene.writeSvg(out);
+        }
+        return Collections.singletonList(file);
+    }
+
+    /*
+     * Renders every graph in a file on a pool of threads; the reader stays at most 2 * threads graphs ahead so
+     * large files are not loaded at once. Returns the written files in input order.
+     */
+    public static List<Path> renderFile(Path input, boolean binary, Path outDir, Options opt, int threads) throws IOException {
+        if (threads < 1) throw new IllegalArgumentException("threads must be positive: " + threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, DatasetPipeline.named("mst-render"));
+        Semaphore ahead = new Semaphore(2 * threads);
+        List<Future<List<Path>>> pending = new ArrayList<>();
+        try (GraphSource source = GraphSource.open(input, binary)) {
+            GraphReader.Entry entry;
+            while ((entry = source.next()) != null) {
+                ahead.acquireUninterruptibly();
+                Graph graph = entry.graph;
+                String id = entry.name;
+                String title = "Graph " + id.replace("graph_", "");
+                pending.add(pool.submit(() -> {
+                    try {
+                        return render(id, title, graph, outDir, opt);
+                    } finally {
+                        ahead.release();
+                    }
+                }));
+            }
+            List<Path> written = new ArrayList<>();
+            for (Future<List<Path>> f : pending) {
+                try {
+                    written.addAll(f.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while rendering");
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) throw (IOException) cause;
+                    if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                    if (cause instanceof Error) throw (Error) cause;
+                    throw new IOException(cause);
+                }
+            }
+            return written;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package mst;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+
+public interface GraphSource extends Closeable {
+    // Returns the next graph, or null when the source is exhausted.
+    GraphReader.Entry next() throws IOException;
+
+    // With useBinary, a sibling .mstg file is (re)built from the JSON when missing or stale and read instead.
+    static GraphSource open(Path jsonPath, boolean useBinary) throws IOException {
+        if (!useBinary) return GraphReader.open(jsonPath);
+        Path bin = BinaryGraphFile.siblingOf(jsonPath);
+        if (!Files.exists(bin) || Files.getLastModifiedTime(bin).compareTo(Files.getLastModifiedTime(jsonPath)) < 0) {
+            BinaryGraphFile.convert(jsonPath, bin);
+        }
+        return BinaryGraphFile.open(bin);
+    }
+}
@@ -1,86 +1,130 @@
 package mst;
 
-import com.google.gson.*;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.Line2D;
 import java.awt.image.BufferedImage;
 import java.io.*;
+import java.nio.file.*;
 import java.util.*;
 import java.util.List;
 import javax.imageio.ImageIO;
 
 public class GraphVisualizer extends JPanel {
+    private static final Stroke EDGE_STROKE = new BasicStroke(2);
+    private static final Stroke MST_STROKE = new BasicStroke(3);
+    private static final Color VERTEX_FILL = new Color(255, 230, 150);
+    private static final Font TITLE_FONT = new Font("SansSerif", Font.BOLD, 18);
+    private static final LayoutCache LAYOUTS = new LayoutCache(null);
+    // 100 Barnes-Hut iterations on 20k edges take about two seconds on one core.
+    static final int AUTO_FORCE_MAX_EDGES = 20_000;
+
     private final List<String> vertices;
     private final List<Edge> edges;
     private final List<Edge> mstEdges;
     private final Map<String, Point> positions;
     private final String title;
+    // Endpoints (x1, y1, x2, y2 per edge) and weight labels are resolved once instead of on every repaint.
+    private final int[] edgeXY;
+    private final int[] mstXY;
+    private final String[] weightLabels;
+    private final Line2D.Double line = new Line2D.Double();
 
     public GraphVisualizer(String title, List<String> vertices, List<Edge> edges, List<Edge> mstEdges) {
+        this(title, vertices, edges, mstEdges, new GraphRenderer.Options().layout(new ForceLayout.Options()));
+    }
+
+    // Only the layout settings of opt apply here; the panel is always 800x600.
+    public GraphVisualizer(String title, List<String> vertices, List<Edge> edges, List<Edge> mstEdges,
+                           GraphRenderer.Options opt) {
         this.title = title;
         this.vertices = vertices;
         this.edges = edges;
         this.mstEdges = mstEdges;
-        this.positions = computePositions(vertices);
+        this.positions = computePositions(vertices, opt);
+        this.edgeXY = endpoints(edges);
+        this.mstXY = endpoints(mstEdges);
+        this.weightLabels = new String[edges.size()];
+        for (int i = 0; i < weightLabels.length; i++) weightLabels[i] = GraphRenderer.weightLabel(edges.get(i).getWeight());
         setPreferredSize(new Dimension(800, 600));
         setBackground(Color.WHITE);
     }
 
-    private Map<String, Point> computePositions(List<String> vertices) {
-        Map<String, Point> pos = new HashMap<>();
-        int n = vertices.size();
-        int radius = 220;
-        int centerX = 400;
-        int centerY = 300;
-        for (int i = 0; i < n; i++) {
-            double angle = 2 * Math.PI * i / n;
-            int x = (int) (centerX + radius * Math.cos(angle));
-            int y = (int) (centerY + radius * Math.sin(angle));
-            pos.put(vertices.get(i), new Point(x, y));
+    /*
+     * Circle or force-directed positions (seeded from the MST skeleton) per opt, fitted to the panel. Force layouts
+     * are cached per title in opt's cache, or in a shared in-memory one, so reopening a graph does not rerun them.
+     */
+    private Map<String, Point> computePositions(List<String> vertices, GraphRenderer.Options opt) {
+        CsrGraph csr = CsrGraph.of(vertices, edges);
+        int n = csr.vertexCount();
+        float[] lx, ly;
+        ForceLayout.Options force = opt.layoutFor(csr);
+        if (force == null) {
+            float[][] circle = GraphRenderer.circle(n);
+            lx = circle[0];
+            ly = circle[1];
+        } else {
+            int[] tree = GraphRenderer.treeEdges(csr, mstEdges);
+            LayoutCache cache = opt.layoutCache != null ? opt.layoutCache : LAYOUTS;
+            ForceLayout.Layout layout = cache.get(title, csr, tree, new ForceLayout(force));
+            lx = layout.x;
+            ly = layout.y;
         }
+        float[] x = new float[n];
+        float[] y = new float[n];
+        GraphRenderer.fit(lx, ly, 800, 600, x, y);
+        Map<String, Point> pos = new HashMap<>();
+        for (int i = 0; i < n; i++) pos.put(csr.label(i), new Point(Math.round(x[i]), Math.round(y[i])));
         return pos;
     }
 
+    private int[] endpoints(List<Edge> list) {
+        int[] xy = new int[list.size() * 4];
+        for (int i = 0; i < list.size(); i++) {
+            Point p1 = positions.get(list.get(i).getU());
+            Point p2 = positions.get(list.get(i).getV());
+            xy[4 * i] = p1.x;
+            xy[4 * i + 1] = p1.y;
+            xy[4 * i + 2] = p2.x;
+            xy[4 * i + 3] = p2.y;
+        }
+        return xy;
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g;
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        g2.setStroke(new BasicStroke(2));
-        g2.setColor(Color.LIGHT_GRAY);
-        for (Edge e : edges) {
-            Point p1 = positions.get(e.getU());
-            Point p2 = positions.get(e.getV());
-            g2.draw(new Line2D.Double(p1.x, p1.y, p2.x, p2.y));
-
-            int midX = (p1.x + p2.x) / 2;
-            int midY = (p1.y + p2.y) / 2;
-            g2.setColor(Color.DARK_GRAY);
-            g2.drawString(String.format("%.0f", e.getWeight()), midX, midY);
+        g2.setStroke(EDGE_STROKE);
+        for (int i = 0; i < weightLabels.length; i++) {
+            int x1 = edgeXY[4 * i], y1 = edgeXY[4 * i + 1], x2 = edgeXY[4 * i + 2], y2 = edgeXY[4 * i + 3];
             g2.setColor(Color.LIGHT_GRAY);
+            line.setLine(x1, y1, x2, y2);
+            g2.draw(line);
+            g2.setColor(Color.DARK_GRAY);
+            g2.drawString(weightLabels[i], (x1 + x2) / 2, (y1 + y2) / 2);
         }
 
         g2.setColor(Color.RED);
-        g2.setStroke(new BasicStroke(3));
-        for (Edge e : mstEdges) {
-            Point p1 = positions.get(e.getU());
-            Point p2 = positions.get(e.getV());
-            g2.draw(new Line2D.Double(p1.x, p1.y, p2.x, p2.y));
+        g2.setStroke(MST_STROKE);
+        for (int i = 0; i < mstXY.length; i += 4) {
+            line.setLine(mstXY[i], mstXY[i + 1], mstXY[i + 2], mstXY[i + 3]);
+            g2.draw(line);
         }
 
         for (String v : vertices) {
             Point p = positions.get(v);
             int r = 22;
-            g2.setColor(new Color(255, 230, 150));
+            g2.setColor(VERTEX_FILL);
             g2.fillOval(p.x - r / 2, p.y - r / 2, r, r);
             g2.setColor(Color.BLACK);
             g2.drawOval(p.x - r / 2, p.y - r / 2, r, r);
             g2.drawString(v, p.x - 5, p.y - 10);
         }
 
-        g2.setFont(new Font("SansSerif", Font.BOLD, 18));
+        g2.setFont(TITLE_FONT);
         g2.setColor(Color.BLACK);
         g2.drawString(title + "  (Red = MST edges)", 20, 30);
     }
@@ -100,8 +144,13 @@ public class GraphVisualizer extends JPanel {
         }
     }
 
-    public static void showAndSaveGraph(String title, List<String> vertices, List<Edge> edges, List<Edge> mstEdges, int id) {
-        GraphVisualizer panel = new GraphVisualizer(title, vertices, edges, mstEdges);
+    public static void showAndSaveGraph(String title, List<String> vertices, List<Edge> edges, List<Edge> mstEdges, String id) {
+        showAndSaveGraph(title, vertices, edges, mstEdges, id, new GraphRenderer.Options().layout(new ForceLayout.Options()));
+    }
+
+    public static void showAndSaveGraph(String title, List<String> vertices, List<Edge> edges, List<Edge> mstEdges, String id,
+                                        GraphRenderer.Options opt) {
+        GraphVisualizer panel = new GraphVisualizer(title, vertices, edges, mstEdges, opt);
 
         JFrame frame = new JFrame(title);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -111,43 +160,75 @@ public class GraphVisualizer extends JPanel {
         frame.setVisible(true);
 
         SwingUtilities.invokeLater(() -> {
-            String filename = String.format("visuals/%s.png", title.replace(" ", "_"));
+            String filename = String.format("visuals/Graph_%s.png", GraphRenderer.fileName(id));
             panel.saveAsImage(filename);
         });
     }
 
+    /*
+     * Usage: GraphVisualizer [input] [--binary] [--headless] [--svg] [--mst-only] [--max-edges=N] [--labels=N]
+     *                        [--size=WxH] [--tile=N] [--threads=N] [--out=dir]
+     *                        [--layout=force|circle] [--iterations=N] [--layout-cache=dir]
+     * --headless renders every graph in parallel through GraphRenderer without opening any window.
+     * Without --layout or --iterations, graphs above AUTO_FORCE_MAX_EDGES edges use the circle, so large inputs
+     * render in seconds; an explicit --layout=force or --iterations applies the force layout to every graph.
+     */
     public static void main(String[] args) throws Exception {
-        JsonObject root = JsonParser.parseReader(new FileReader("data/assign_3_input_small.json")).getAsJsonObject();
-        JsonArray graphs = root.getAsJsonArray("graphs");
-
-        for (JsonElement gElem : graphs) {
-            JsonObject gObj = gElem.getAsJsonObject();
-            int graphId = gObj.get("id").getAsInt();
-            String title = "Graph " + graphId;
-
-            List<String> vertices = new ArrayList<>();
-            for (JsonElement v : gObj.getAsJsonArray("vertices")) {
-                vertices.add(String.valueOf(v.getAsInt()));
+        Path input = Paths.get("data/assign_3_input_small.json");
+        boolean binary = false;
+        boolean headless = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path outDir = Paths.get("visuals");
+        ForceLayout.Options layout = new ForceLayout.Options().iterations(100);
+        GraphRenderer.Options options = new GraphRenderer.Options().layout(layout).forceMaxEdges(AUTO_FORCE_MAX_EDGES);
+        for (String arg : args) {
+            if (arg.equals("--binary")) binary = true;
+            else if (arg.equals("--headless")) headless = true;
+            else if (arg.equals("--svg")) options.svg(true);
+            else if (arg.equals("--mst-only")) options.mstOnly(true);
+            else if (arg.startsWith("--max-edges=")) options.maxEdges(Integer.parseInt(arg.substring("--max-edges=".length())));
+            else if (arg.startsWith("--labels=")) options.labelThreshold(Integer.parseInt(arg.substring("--labels=".length())));
+            else if (arg.startsWith("--tile=")) options.tileSize(Integer.parseInt(arg.substring("--tile=".length())));
+            else if (arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring("--threads=".length()));
+            else if (arg.startsWith("--out=")) outDir = Paths.get(arg.substring("--out=".length()));
+            else if (arg.equals("--layout=circle")) options.layout(null);
+            else if (arg.equals("--layout=force")) options.layout(layout).forceMaxEdges(Integer.MAX_VALUE);
+            else if (arg.startsWith("--iterations=")) {
+                layout.iterations(Integer.parseInt(arg.substring("--iterations=".length())));
+                options.forceMaxEdges(Integer.MAX_VALUE);
             }
-
-            // Parse edges
-            List<Edge> edges = new ArrayList<>();
-            for (JsonElement eElem : gObj.getAsJsonArray("edges")) {
-                JsonObject eObj = eElem.getAsJsonObject();
-                edges.add(new Edge(
-                        String.valueOf(eObj.get("u").getAsInt()),
-                        String.valueOf(eObj.get("v").getAsInt()),
-                        eObj.get("w").getAsDouble()
-                ));
+            else if (arg.startsWith("--layout-cache=")) {
+                options.layoutCache(new LayoutCache(Paths.get(arg.substring("--layout-cache=".length()))));
             }
+            else if (arg.startsWith("--size=")) {
+                String[] wh = arg.substring("--size=".length()).split("x");
+                options.size(Integer.parseInt(wh[0]), Integer.parseInt(wh[1]));
+            } else input = Paths.get(arg);
+        }
 
-            Graph graph = new Graph(vertices, edges);
+        if (headless) {
+            System.setProperty("java.awt.headless", "true");
+            long t0 = System.nanoTime();
+            List<Path> written = GraphRenderer.renderFile(input, binary, outDir, options, threads);
+            System.out.printf("Rendered %d files to %s in %s%n", written.size(), outDir,
+                    ResultWriter.formatMs((System.nanoTime() - t0) / 1_000_000.0));
+            return;
+        }
 
-            KruskalMST.Result result = KruskalMST.compute(graph);
-            List<Edge> mstEdges = result.mstEdges;
-            double totalCost = result.totalCost;
+        try (GraphSource source = GraphSource.open(input, binary)) {
+            GraphReader.Entry entry;
+            while ((entry = source.next()) != null) {
+                String graphId = entry.name.replace("graph_", "");
+                Graph graph = entry.graph;
+                String title = "Graph " + graphId;
+                List<String> vertices = graph.getVertices();
+                List<Edge> edges = graph.getEdges();
 
-            SwingUtilities.invokeLater(() -> showAndSaveGraph(title, vertices, edges, mstEdges, graphId));
+                KruskalMST.Result result = KruskalMST.compute(graph);
+                List<Edge> mstEdges = result.mstEdges;
+
+                SwingUtilities.invokeLater(() -> showAndSaveGraph(title, vertices, edges, mstEdges, graphId, options));
+            }
         }
     }
 }
@@ -0,0 +1,103 @@
+package mst;
+
+import java.util.Arrays;
+
+public class IndexedDaryHeap {
+    private final int arity;
+    private final int[] heap;
+    private final int[] pos;
+    private final double[] keys;
+    private int size;
+
+    public IndexedDaryHeap(int capacity, int arity) {
+        if (arity < 2) throw new IllegalArgumentException("Heap arity must be at least 2: " + arity);
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.pos = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    public int arity() { return arity; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public boolean contains(int v) { return pos[v] >= 0; }
+    public double key(int v) { return keys[v]; }
+
+    public void insert(int v, double key) {
+        if (pos[v] >= 0) throw new IllegalArgumentException("Index already in heap: " + v);
+        keys[v] = key;
+        heap[size] = v;
+        pos[v] = size;
+        siftUp(size++);
+    }
+
+    public void decreaseKey(int v, double key) {
+        if (pos[v] < 0) throw new IllegalArgumentException("Index not in heap: " + v);
+        if (key > keys[v]) throw new IllegalArgumentException("Key increase for index " + v);
+        keys[v] = key;
+        siftUp(pos[v]);
+    }
+
+    public int peekMin() {
+        if (size == 0) throw new IllegalStateException("Heap is empty");
+        return heap[0];
+    }
+
+    public int pollMin() {
+        if (size == 0) throw new IllegalStateException("Heap is empty");
+        int min = heap[0];
+        pos[min] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int v = heap[i];
+        double k = keys[v];
+        while (i > 0) {
+            int p = (i - 1) / arity;
+            int pv = heap[p];
+            if (keys[pv] <= k) break;
+            heap[i] = pv;
+            pos[pv] = i;
+            i = p;
+        }
+        heap[i] = v;
+        pos[v] = i;
+    }
+
+    private void siftDown(int i) {
+        int v = heap[i];
+        double k = keys[v];
+        while (true) {
+            int first = i * arity + 1;
+            if (first >= size) break;
+            int last = Math.min(first + arity, size);
+            int best = first;
+            double bestKey = keys[heap[first]];
+            for (int c = first + 1; c < last; c++) {
+                double ck = keys[heap[c]];
+                if (ck < bestKey) {
+                    best = c;
+                    bestKey = ck;
+                }
+            }
+            if (bestKey >= k) break;
+            heap[i] = heap[best];
+            pos[heap[i]] = i;
+            i = best;
+        }
+        heap[i] = v;
+        pos[v] = i;
+    }
+}
@@ -0,0 +1,56 @@
+package mst;
+
+public class IntUnionFind {
+    private final int[] parent;
+    private final int[] size;
+    private int components;
+
+    private long findCalls = 0;
+    private long unions = 0;
+
+    public IntUnionFind(int n) {
+        parent = new int[n];
+        size = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        components = n;
+    }
+
+    public int find(int x) {
+        findCalls++;
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    public boolean union(int a, int b) {
+        return unionRoots(find(a), find(b));
+    }
+
+    // Both arguments must already be roots, e.g. the results of find().
+    public boolean unionRoots(int ra, int rb) {
+        if (ra == rb) return false;
+        if (size[ra] < size[rb]) {
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        parent[rb] = ra;
+        size[ra] += size[rb];
+        components--;
+        unions++;
+        return true;
+    }
+
+    public boolean connected(int a, int b) { return find(a) == find(b); }
+
+    public int size() { return parent.length; }
+    public int components() { return components; }
+
+    public long getFindCalls() { return findCalls; }
+    public long getUnions() { return unions; }
+}
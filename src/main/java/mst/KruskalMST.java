@@ -1,6 +1,7 @@
 package mst;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 public class KruskalMST {
     public static class Result {
@@ -19,14 +20,18 @@ public class KruskalMST {
 
     public static Result compute(Graph g) {
         long t0 = System.nanoTime();
-        List<Edge> edges = new ArrayList<>(g.getEdges());
-        Collections.sort(edges);
+        // Sorting edge indices by (weight, index) gives the same order as a stable sort of the Edge list.
+        List<Edge> edges = g.getEdges();
+        int[] order = EdgeSort.identity(edges.size());
+        EdgeSort.Strategy strategy = EdgeSort.sortAdaptive(order, 0, order.length, g.csr().weightArray());
+        long tSort = System.nanoTime();
 
         UnionFind uf = new UnionFind(g.getVertices());
         List<Edge> mst = new ArrayList<>();
         long edgeConsidered = 0;
 
-        for (Edge e : edges) {
+        for (int idx : order) {
+            Edge e = edges.get(idx);
             edgeConsidered++;
             String u = e.getU();
             String v = e.getV();
@@ -42,12 +47,178 @@ public class KruskalMST {
         }
 
         long t1 = System.nanoTime();
+        Metrics.global().recordPhase(Metrics.Phase.SORT, t0, tSort);
+        Metrics.global().recordPhase(Metrics.Phase.UNION_FIND, tSort, t1);
         double timeMs = (t1 - t0) / 1_000_000.0;
         Map<String, Long> ops = new HashMap<>();
         ops.put("edge_considered", edgeConsidered);
         ops.put("find_calls", uf.getFindCalls());
         ops.put("unions", uf.getUnions());
+        ops.put("sort_" + strategy.key, 1L);
         double totalCost = mst.stream().mapToDouble(Edge::getWeight).sum();
         return new Result(mst, totalCost, ops, timeMs);
     }
+
+    public static Result computeIndexed(Graph g) {
+        long t0 = System.nanoTime();
+        CsrGraph csr = g.csr();
+        int[] us = csr.edgeUArray();
+        int[] vs = csr.edgeVArray();
+        double[] ws = csr.weightArray();
+        int[] order = EdgeSort.identity(ws.length);
+        EdgeSort.Strategy strategy = EdgeSort.sortAdaptive(order, 0, order.length, ws);
+        long tSort = System.nanoTime();
+
+        IntUnionFind uf = new IntUnionFind(csr.vertexCount());
+        int target = Math.max(0, g.V() - 1);
+        List<Edge> mst = new ArrayList<>(target);
+        double totalCost = 0.0;
+        long edgeConsidered = 0;
+
+        for (int e : order) {
+            edgeConsidered++;
+            int ru = uf.find(us[e]);
+            int rv = uf.find(vs[e]);
+            if (uf.unionRoots(ru, rv)) {
+                mst.add(csr.toEdge(e));
+                totalCost += ws[e];
+            }
+            if (mst.size() == target) break;
+        }
+
+        long t1 = System.nanoTime();
+        Metrics.global().recordPhase(Metrics.Phase.SORT, t0, tSort);
+        Metrics.global().recordPhase(Metrics.Phase.UNION_FIND, tSort, t1);
+        double timeMs = (t1 - t0) / 1_000_000.0;
+        Map<String, Long> ops = new HashMap<>();
+        ops.put("edge_considered", edgeConsidered);
+        ops.put("find_calls", uf.getFindCalls());
+        ops.put("unions", uf.getUnions());
+        ops.put("sort_" + strategy.key, 1L);
+        return new Result(mst, totalCost, ops, timeMs);
+    }
+
+    private static final int FILTER_BASE_CASE = 1024;
+    private static final int FILTER_MAX_DEPTH = 64;
+
+    public static Result computeFilter(Graph g) {
+        return computeFilter(g, ForkJoinPool.commonPool());
+    }
+
+    public static Result computeFilter(Graph g, ForkJoinPool pool) {
+        long t0 = System.nanoTime();
+        CsrGraph csr = g.csr();
+        FilterState st = new FilterState(csr, Math.max(0, g.V() - 1), pool);
+        int[] idx = EdgeSort.identity(csr.edgeCount());
+        st.baseCase = Math.max(FILTER_BASE_CASE, csr.vertexCount());
+        st.run(idx, 0, idx.length, 0);
+
+        long t1 = System.nanoTime();
+        double timeMs = (t1 - t0) / 1_000_000.0;
+        Map<String, Long> ops = new HashMap<>();
+        ops.put("edge_considered", st.edgeConsidered);
+        ops.put("find_calls", st.uf.getFindCalls());
+        ops.put("unions", st.uf.getUnions());
+        ops.put("partitions", st.partitions);
+        ops.put("edges_filtered", st.edgesFiltered);
+        ops.put("edges_sorted", st.edgesSorted);
+        return new Result(st.mst, st.totalCost, ops, timeMs);
+    }
+
+    private static final class FilterState {
+        final CsrGraph csr;
+        final int[] us;
+        final int[] vs;
+        final double[] ws;
+        final int target;
+        final ForkJoinPool pool;
+        final IntUnionFind uf;
+        final List<Edge> mst;
+        int baseCase;
+        double totalCost;
+        long edgeConsidered;
+        long partitions;
+        long edgesFiltered;
+        long edgesSorted;
+
+        FilterState(CsrGraph csr, int target, ForkJoinPool pool) {
+            this.csr = csr;
+            this.us = csr.edgeUArray();
+            this.vs = csr.edgeVArray();
+            this.ws = csr.weightArray();
+            this.target = target;
+            this.pool = pool;
+            this.uf = new IntUnionFind(csr.vertexCount());
+            this.mst = new ArrayList<>(target);
+        }
+
+        boolean done() { return mst.size() == target; }
+
+        void run(int[] idx, int from, int to, int depth) {
+            while (!done() && from < to) {
+                if (to - from <= baseCase || depth >= FILTER_MAX_DEPTH) {
+                    sortAndScan(idx, from, to);
+                    return;
+                }
+                int pivot = medianOfThree(idx[from], idx[(from + to) >>> 1], idx[to - 1]);
+                int mid = partition(idx, from, to, pivot);
+                partitions++;
+                if (mid == from || mid == to) {
+                    sortAndScan(idx, from, to);
+                    return;
+                }
+                run(idx, from, mid, depth + 1);
+                if (done()) return;
+                from = mid;
+                to = filter(idx, mid, to);
+                depth++;
+            }
+        }
+
+        // Moves edges lighter than the pivot to the front; returns the start of the heavy side.
+        int partition(int[] idx, int from, int to, int pivot) {
+            int store = from;
+            for (int i = from; i < to; i++) {
+                int e = idx[i];
+                if (EdgeSort.less(e, pivot, ws)) {
+                    idx[i] = idx[store];
+                    idx[store++] = e;
+                }
+            }
+            return store;
+        }
+
+        int filter(int[] idx, int from, int to) {
+            int kept = from;
+            for (int i = from; i < to; i++) {
+                int e = idx[i];
+                if (uf.find(us[e]) != uf.find(vs[e])) idx[kept++] = e;
+            }
+            edgesFiltered += to - kept;
+            return kept;
+        }
+
+        void sortAndScan(int[] idx, int from, int to) {
+            EdgeSort.parallelSort(idx, from, to, ws, pool);
+            edgesSorted += to - from;
+            for (int i = from; i < to; i++) {
+                int e = idx[i];
+                edgeConsidered++;
+                if (uf.unionRoots(uf.find(us[e]), uf.find(vs[e]))) {
+                    mst.add(csr.toEdge(e));
+                    totalCost += ws[e];
+                }
+                if (done()) return;
+            }
+        }
+
+        int medianOfThree(int a, int b, int c) {
+            if (EdgeSort.less(a, b, ws)) {
+                if (EdgeSort.less(b, c, ws)) return b;
+                return EdgeSort.less(a, c, ws) ? c : a;
+            }
+            if (EdgeSort.less(a, c, ws)) return a;
+            return EdgeSort.less(b, c, ws) ? c : b;
+        }
+    }
 }
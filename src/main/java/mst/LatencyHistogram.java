@@ -0,0 +1,77 @@
+package mst;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// HDR-style log-linear histogram of nanosecond values: exact below 64ns, then 32 sub-buckets per power of two (~3% error).
+public class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int LINEAR = 2 * SUB;
+    private static final int BUCKETS = LINEAR + (63 - (SUB_BITS + 1)) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+    public void recordNanos(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucket(nanos));
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+        min.accumulate(nanos);
+    }
+
+    public long count() { return count.sum(); }
+    public long sumNanos() { return sum.sum(); }
+    public long maxNanos() { return max.get(); }
+    public long minNanos() { return count() == 0 ? 0 : min.get(); }
+
+    public double meanNanos() {
+        long c = count();
+        return c == 0 ? 0.0 : (double) sumNanos() / c;
+    }
+
+    // Upper bound of the bucket holding the q-quantile, capped at the recorded maximum.
+    public long quantileNanos(double q) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) total += snapshot[i] = counts.get(i);
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(upperBound(i), maxNanos());
+        }
+        return maxNanos();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.reset();
+        min.reset();
+    }
+
+    static int bucket(long v) {
+        if (v < LINEAR) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int shift = exp - SUB_BITS;
+        return LINEAR + (exp - SUB_BITS - 1) * SUB + (int) ((v >>> shift) - SUB);
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR) return bucket;
+        int exp = (bucket - LINEAR) / SUB + SUB_BITS + 1;
+        int shift = exp - SUB_BITS;
+        long top = SUB + (bucket - LINEAR) % SUB;
+        long lower = top << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
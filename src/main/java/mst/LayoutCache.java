@@ -0,0 +1,134 @@
+package mst;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/*
+ * Force layouts keyed by graph id, kept in memory and optionally in diskDir as <id>.layout. An entry is only reused
+ * when the graph's content hash, its tree and the layout options still match, so editing a graph or changing the
+ * iteration budget recomputes instead of serving a stale picture. Memory holds at most maxEntries layouts, least
+ * recently used first out; the disk copies are kept.
+ */
+public class LayoutCache {
+    private static final int MAGIC = 0x4D53544C; // "MSTL"
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+
+    private final Path diskDir;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits = 0;
+    private long diskHits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    private static final class Entry {
+        final String signature;
+        final ForceLayout.Layout layout;
+
+        Entry(String signature, ForceLayout.Layout layout) {
+            this.signature = signature;
+            this.layout = layout;
+        }
+    }
+
+    public LayoutCache(Path diskDir) {
+        this(diskDir, DEFAULT_MAX_ENTRIES);
+    }
+
+    public LayoutCache(Path diskDir, int maxEntries) {
+        if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        this.diskDir = diskDir;
+        this.maxEntries = maxEntries;
+    }
+
+    public ForceLayout.Layout get(String graphId, CsrGraph csr, int[] treeEdges, ForceLayout engine) {
+        String signature = signature(csr, treeEdges, engine);
+        synchronized (this) {
+            Entry e = entries.get(graphId);
+            if (e != null && e.signature.equals(signature)) {
+                hits++;
+                return e.layout;
+            }
+        }
+        ForceLayout.Layout layout = diskDir == null ? null : readDisk(graphId, signature);
+        synchronized (this) {
+            if (layout != null) diskHits++;
+            else misses++;
+        }
+        if (layout == null) {
+            layout = engine.compute(csr, treeEdges);
+            if (diskDir != null) writeDisk(graphId, signature, layout);
+        }
+        synchronized (this) {
+            entries.put(graphId, new Entry(signature, layout));
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+                evictions++;
+            }
+        }
+        return layout;
+    }
+
+    // Content hash of vertices, endpoints and weights plus the tree, so any edit to the graph invalidates the entry.
+    static String signature(CsrGraph csr, int[] treeEdges, ForceLayout engine) {
+        return csr.vertexCount() + ":" + csr.edgeCount() + ":" + ResultCache.key(new Graph(csr)) + ":"
+                + Integer.toHexString(Arrays.hashCode(treeEdges)) + ":" + engine.options().signature();
+    }
+
+    public synchronized Map<String, Long> stats() {
+        Map<String, Long> s = new LinkedHashMap<>();
+        s.put("hits", hits);
+        s.put("disk_hits", diskHits);
+        s.put("misses", misses);
+        s.put("evictions", evictions);
+        s.put("entries", (long) entries.size());
+        return s;
+    }
+
+    private Path fileFor(String graphId) {
+        return diskDir.resolve(GraphRenderer.fileName(graphId) + ".layout");
+    }
+
+    private ForceLayout.Layout readDisk(String graphId, String signature) {
+        Path file = fileFor(graphId);
+        if (!Files.exists(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || !in.readUTF().equals(signature)) return null;
+            int iterations = in.readInt();
+            int n = in.readInt();
+            float[] x = new float[n];
+            float[] y = new float[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = in.readFloat();
+                y[i] = in.readFloat();
+            }
+            return new ForceLayout.Layout(x, y, iterations, 0.0);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Written to a temp file and moved into place, so concurrent readers never see a partial layout.
+    private void writeDisk(String graphId, String signature, ForceLayout.Layout layout) {
+        try {
+            Files.createDirectories(diskDir);
+            Path tmp = Files.createTempFile(diskDir, "layout", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(signature);
+                out.writeInt(layout.iterations);
+                out.writeInt(layout.x.length);
+                for (int i = 0; i < layout.x.length; i++) {
+                    out.writeFloat(layout.x[i]);
+                    out.writeFloat(layout.y[i]);
+                }
+            }
+            Files.move(tmp, fileFor(graphId), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not cache layout for " + graphId + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package mst;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Process-wide counters and latency histograms. Engines keep their plain local counters in the hot loops
+ * and publish once per run, so recording costs a few LongAdder adds and one histogram update per phase.
+ */
+public class Metrics {
+    // TRAVERSAL is a whole Prim run: its heap operations interleave with adjacency scans and edge output, and timing
+    // each one separately would cost about as much as the operation itself.
+    public enum Phase {
+        SORT("sort"), TRAVERSAL("traversal"), UNION_FIND("union_find"), SEARCH("search"), SHARD("shard"), IO_READ("io_read"), IO_WRITE("io_write");
+
+        final String key;
+
+        Phase(String key) { this.key = key; }
+    }
+
+    private static final Metrics GLOBAL = new Metrics();
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] QUANTILE_KEYS = {"p50", "p90", "p99", "p999"};
+
+    private final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+    private final Map<String, String> names = new ConcurrentHashMap<>();
+
+    public Metrics() {
+        for (Phase p : Phase.values()) phases[p.ordinal()] = histogram("phase_" + p.key);
+    }
+
+    public static Metrics global() { return GLOBAL; }
+
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    public LatencyHistogram phase(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    public void recordPhase(Phase phase, long startNanos, long endNanos) {
+        phases[phase.ordinal()].recordNanos(endNanos - startNanos);
+    }
+
+    // Folds one engine run into <engine>_<op>_total counters and an <engine>_run latency histogram.
+    public void recordRun(String engine, Map<String, Long> ops, double timeMs) {
+        counter(engine + "_runs_total").increment();
+        for (Map.Entry<String, Long> en : ops.entrySet()) {
+            String name = names.computeIfAbsent(engine + "\0" + en.getKey(), k -> engine + "_" + en.getKey() + "_total");
+            counter(name).add(en.getValue());
+        }
+        histogram(engine + "_run").recordNanos((long) (timeMs * 1_000_000));
+    }
+
+    public void reset() {
+        for (LongAdder c : counters.values()) c.reset();
+        for (LatencyHistogram h : histograms.values()) h.reset();
+    }
+
+    public void writeJson(Writer out) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.setIndent("  ");
+        json.beginObject();
+        json.name("counters");
+        json.beginObject();
+        for (Map.Entry<String, LongAdder> en : counters.entrySet()) json.name(en.getKey()).value(en.getValue().sum());
+        json.endObject();
+        json.name("histograms");
+        json.beginObject();
+        for (Map.Entry<String, LatencyHistogram> en : histograms.entrySet()) {
+            LatencyHistogram h = en.getValue();
+            json.name(en.getKey());
+            json.beginObject();
+            json.name("count").value(h.count());
+            json.name("sum_ms").value(h.sumNanos() / 1e6);
+            json.name("min_ms").value(h.minNanos() / 1e6);
+            json.name("mean_ms").value(h.meanNanos() / 1e6);
+            for (int i = 0; i < QUANTILES.length; i++) {
+                json.name(QUANTILE_KEYS[i] + "_ms").value(h.quantileNanos(QUANTILES[i]) / 1e6);
+            }
+            json.name("max_ms").value(h.maxNanos() / 1e6);
+            json.endObject();
+        }
+        json.endObject();
+        json.endObject();
+        json.flush();
+    }
+
+    // Prometheus text exposition format 0.0.4; histograms are exported as summaries in seconds.
+    public void writePrometheus(Writer out) throws IOException {
+        for (Map.Entry<String, LongAdder> en : counters.entrySet()) {
+            String name = "mst_" + sanitize(en.getKey());
+            out.write("# TYPE " + name + " counter\n");
+            out.write(name + " " + en.getValue().sum() + "\n");
+        }
+        for (Map.Entry<String, LatencyHistogram> en : histograms.entrySet()) {
+            String name = "mst_" + sanitize(en.getKey()) + "_seconds";
+            LatencyHistogram h = en.getValue();
+            out.write("# TYPE " + name + " summary\n");
+            for (double q : QUANTILES) {
+                out.write(name + "{quantile=\"" + q + "\"} " + seconds(h.quantileNanos(q)) + "\n");
+            }
+            out.write(name + "_sum " + seconds(h.sumNanos()) + "\n");
+            out.write(name + "_count " + h.count() + "\n");
+        }
+        out.flush();
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    private static String sanitize(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sb.append(Character.isLetterOrDigit(c) && c < 128 || c == '_' ? c : '_');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package mst;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Serves a Metrics registry on the loopback interface: /metrics (Prometheus text) and /metrics.json.
+public class MetricsServer implements Closeable {
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public MetricsServer(Metrics metrics, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newSingleThreadExecutor(DatasetPipeline.named("mst-metrics"));
+        server.setExecutor(executor);
+        register(server, metrics);
+        server.start();
+    }
+
+    public int port() { return server.getAddress().getPort(); }
+
+    static void register(HttpServer server, Metrics metrics) {
+        server.createContext("/metrics", ex -> {
+            StringWriter body = new StringWriter();
+            metrics.writePrometheus(body);
+            respond(ex, 200, "text/plain; version=0.0.4; charset=utf-8", body.toString());
+        });
+        server.createContext("/metrics.json", ex -> {
+            StringWriter body = new StringWriter();
+            metrics.writeJson(body);
+            respond(ex, 200, "application/json; charset=utf-8", body.toString());
+        });
+    }
+
+    static void respond(HttpExchange ex, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", contentType);
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
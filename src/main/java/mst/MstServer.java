@@ -0,0 +1,293 @@
+package mst;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * Resident solver on the loopback interface, so JVM start-up and JIT warm-up are paid once rather than per run.
+ * POST /solve takes the same JSON as a dataset file and streams back the {"datasets": [...]} block Runner writes,
+ * one graph at a time in input order. Graphs from all requests share one queue; a batcher thread drains it into
+ * batches for BatchSolver, so bursts of small graphs reuse warm scratch buffers. Memory is bounded twice: request
+ * bodies are capped at maxBodyBytes, and every parsed graph must take V + E + 1 queue units before the next one is
+ * read, so admission is checked while the body streams in. A graph that does not fit gets its request a 503 with
+ * Retry-After rather than waiting; a body or graph larger than the whole budget gets 413. Graphs admitted before a
+ * rejection still run and return their units. /metrics and /metrics.json expose the global registry, including
+ * request and queue latencies.
+ */
+public class MstServer implements Closeable {
+    private static final Job STOP = new Job(null, 0);
+
+    private final HttpServer server;
+    private final ExecutorService http;
+    private final ForkJoinPool pool;
+    private final Thread batcher;
+    private final BlockingQueue<Job> queue = new LinkedBlockingQueue<>();
+    // V + E + 1 permits per graph that is queued or in flight; released when its batch finishes.
+    final Semaphore admitted;
+    private final int queueUnits;
+    private final int maxBatch;
+    private final long maxBodyBytes;
+    private final Metrics metrics = Metrics.global();
+
+    private static final class Job {
+        final GraphReader.Entry entry;
+        final int units;
+        final CompletableFuture<Runner.Solved> result = new CompletableFuture<>();
+        final long queuedNanos = System.nanoTime();
+
+        Job(GraphReader.Entry entry, int units) {
+            this.entry = entry;
+            this.units = units;
+        }
+    }
+
+    private static final class BodyTooLarge extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        BodyTooLarge(long limit) {
+            super("Request body exceeds " + limit + " bytes");
+        }
+    }
+
+    // Fails the read once more than limit bytes have been consumed, so an oversized body is never buffered whole.
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long read = 0;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) count(n);
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            read += n;
+            if (read > limit) throw new BodyTooLarge(limit);
+        }
+    }
+
+    public MstServer(int port, int threads, int queueUnits, int maxBatch, long maxBodyBytes) throws IOException {
+        if (queueUnits < 1) throw new IllegalArgumentException("queueUnits must be positive: " + queueUnits);
+        if (maxBatch < 1) throw new IllegalArgumentException("maxBatch must be positive: " + maxBatch);
+        if (maxBodyBytes < 1) throw new IllegalArgumentException("maxBodyBytes must be positive: " + maxBodyBytes);
+        this.queueUnits = queueUnits;
+        this.maxBatch = maxBatch;
+        this.maxBodyBytes = maxBodyBytes;
+        this.admitted = new Semaphore(queueUnits);
+        this.pool = new ForkJoinPool(threads);
+        this.batcher = DatasetPipeline.named("mst-batch").newThread(this::runBatches);
+        batcher.start();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http = Executors.newFixedThreadPool(Math.max(2, threads), DatasetPipeline.named("mst-http"));
+        server.setExecutor(http);
+        server.createContext("/solve", this::handleSolve);
+        MetricsServer.register(server, metrics);
+        server.start();
+    }
+
+    public int port() { return server.getAddress().getPort(); }
+
+    // Solves generated graphs until the engines are compiled; the runs also land in the metrics like any other.
+    public MstServer warmUp(int graphs) throws IOException {
+        if (graphs < 1) return this;
+        StringWriter text = new StringWriter();
+        new GraphGenerator(GraphGenerator.Family.SPARSE, 200, 1000, 1).write(text, graphs, false);
+        List<GraphReader.Entry> entries = new ArrayList<>();
+        try (GraphReader reader = new GraphReader(new StringReader(text.toString()), "warmup")) {
+            GraphReader.Entry e;
+            while ((e = reader.next()) != null) entries.add(e);
+        }
+        BatchSolver.solveAll(entries, pool);
+        return this;
+    }
+
+    private void handleSolve(HttpExchange ex) throws IOException {
+        long t0 = System.nanoTime();
+        if (!ex.getRequestMethod().equals("POST")) {
+            ex.getResponseHeaders().set("Allow", "POST");
+            MetricsServer.respond(ex, 405, "text/plain; charset=utf-8", "POST a graph dataset\n");
+            return;
+        }
+        // A declared length over the cap is refused before reading; an undeclared one is cut off by LimitedInputStream.
+        String length = ex.getRequestHeaders().getFirst("Content-Length");
+        if (length != null && length.matches("\\d+") && (length.length() > 18 || Long.parseLong(length) > maxBodyBytes)) {
+            reject(ex, 413, "Request body exceeds " + maxBodyBytes + " bytes\n");
+            return;
+        }
+        // Each graph is admitted, and queued, as soon as it is parsed; solving overlaps reading the rest.
+        List<Job> jobs = new ArrayList<>();
+        InputStream body = new LimitedInputStream(ex.getRequestBody(), maxBodyBytes);
+        try (GraphReader reader = new GraphReader(new InputStreamReader(body, StandardCharsets.UTF_8), "request")) {
+            GraphReader.Entry e;
+            while ((e = reader.next()) != null) {
+                int units = units(e);
+                if (units > queueUnits) {
+                    reject(ex, 413, e.name + " needs " + units + " queue units, more than the " + queueUnits + " available\n");
+                    return;
+                }
+                if (!admitted.tryAcquire(units)) {
+                    ex.getResponseHeaders().set("Retry-After", "1");
+                    reject(ex, 503, "Queue full, retry later\n");
+                    return;
+                }
+                Job job = new Job(e, units);
+                jobs.add(job);
+                queue.add(job);
+            }
+        } catch (BodyTooLarge e) {
+            reject(ex, 413, e.getMessage() + "\n");
+            return;
+        } catch (IOException | RuntimeException e) {
+            metrics.counter("server_bad_requests_total").increment();
+            MetricsServer.respond(ex, 400, "text/plain; charset=utf-8", "Bad request: " + e.getMessage() + "\n");
+            return;
+        }
+        metrics.counter("server_requests_total").increment();
+        metrics.counter("server_graphs_total").add(jobs.size());
+
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(200, 0);
+        ResultWriter out = new ResultWriter(
+                new BufferedWriter(new OutputStreamWriter(ex.getResponseBody(), StandardCharsets.UTF_8)),
+                Writer.nullWriter(), false);
+        try {
+            // endDataset flushes, so each block goes out as soon as its graph is solved.
+            for (Job job : jobs) Runner.writeBlock(out, job.result.join());
+            // Recorded before the final bytes go out, so a client that has its answer also sees it counted.
+            metrics.histogram("server_request").recordNanos(System.nanoTime() - t0);
+            out.close();
+        } catch (CompletionException e) {
+            // Headers are already out; the writer is left open so the client sees unterminated JSON, not a short list.
+            System.err.println("Solve failed: " + e.getCause());
+            ex.close();
+        }
+    }
+
+    private void reject(HttpExchange ex, int status, String message) throws IOException {
+        metrics.counter("server_rejected_total").increment();
+        MetricsServer.respond(ex, status, "text/plain; charset=utf-8", message);
+    }
+
+    // Queue cost of a graph, roughly proportional to the memory it holds until solved.
+    static int units(GraphReader.Entry e) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) e.graph.V() + e.graph.E() + 1);
+    }
+
+    private void runBatches() {
+        List<Job> batch = new ArrayList<>(maxBatch);
+        List<GraphReader.Entry> entries = new ArrayList<>(maxBatch);
+        while (true) {
+            batch.clear();
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            boolean stop = batch.remove(STOP);
+            if (batch.isEmpty()) return;
+            try {
+                runBatch(batch, entries);
+            } catch (Throwable t) {
+                // Even an Error must not strand the HTTP threads joining on these futures.
+                for (Job job : batch) job.result.completeExceptionally(t);
+            }
+            if (stop) return;
+        }
+    }
+
+    private void runBatch(List<Job> batch, List<GraphReader.Entry> entries) {
+        long started = System.nanoTime();
+        int units = 0;
+        entries.clear();
+        for (Job job : batch) {
+            metrics.histogram("server_queue_wait").recordNanos(started - job.queuedNanos);
+            entries.add(job.entry);
+            units += job.units;
+        }
+        List<Runner.Solved> solved = null;
+        Throwable failure = null;
+        try {
+            solved = BatchSolver.solveAll(entries, pool);
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            admitted.release(units);
+        }
+        metrics.counter("server_batches_total").increment();
+        metrics.histogram("server_batch").recordNanos(System.nanoTime() - started);
+        for (int i = 0; i < batch.size(); i++) {
+            Job job = batch.get(i);
+            if (solved != null) {
+                job.result.complete(solved.get(i));
+            } else if (failure instanceof Error) {
+                job.result.completeExceptionally(failure);
+            } else {
+                // Re-run one by one so a bad graph only fails its own request, not everything batched with it.
+                try {
+                    job.result.complete(Runner.solve(job.entry));
+                } catch (Throwable t) {
+                    job.result.completeExceptionally(t);
+                }
+            }
+        }
+    }
+
+    // Stops accepting requests, lets queued graphs finish, then stops the batcher.
+    @Override
+    public void close() {
+        server.stop(1);
+        queue.add(STOP);
+        try {
+            batcher.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        batcher.interrupt();
+        http.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queueUnits = 1 << 24;
+        int maxBatch = 64;
+        long maxBody = 64L << 20;
+        int warmup = 50;
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) port = Integer.parseInt(arg.substring("--port=".length()));
+            else if (arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring("--threads=".length()));
+            else if (arg.startsWith("--queue=")) queueUnits = Integer.parseInt(arg.substring("--queue=".length()));
+            else if (arg.startsWith("--batch=")) maxBatch = Integer.parseInt(arg.substring("--batch=".length()));
+            else if (arg.startsWith("--max-body=")) maxBody = Long.parseLong(arg.substring("--max-body=".length()));
+            else if (arg.startsWith("--warmup=")) warmup = Integer.parseInt(arg.substring("--warmup=".length()));
+            else {
+                System.err.println("Usage: MstServer [--port=8080] [--threads=N] [--queue=16777216] [--batch=64] [--max-body=67108864] [--warmup=50]");
+                System.exit(2);
+            }
+        }
+        MstServer server = new MstServer(port, threads, queueUnits, maxBatch, maxBody).warmUp(warmup);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("MST server: POST http://localhost:" + server.port() + "/solve, metrics at /metrics");
+    }
+}
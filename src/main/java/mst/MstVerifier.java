@@ -0,0 +1,179 @@
+package mst;
+
+import java.util.*;
+
+public class MstVerifier {
+    public static class Result {
+        public final boolean spanning;
+        public final boolean acyclic;
+        public final boolean minimal;
+        public final int treeComponents;
+        public final int graphComponents;
+        public final double structureMs;
+        public final double minimalityMs;
+
+        public Result(boolean spanning, boolean acyclic, boolean minimal, int treeComponents, int graphComponents,
+                      double structureMs, double minimalityMs) {
+            this.spanning = spanning;
+            this.acyclic = acyclic;
+            this.minimal = minimal;
+            this.treeComponents = treeComponents;
+            this.graphComponents = graphComponents;
+            this.structureMs = structureMs;
+            this.minimalityMs = minimalityMs;
+        }
+
+        public boolean valid() { return spanning && acyclic && minimal; }
+        // A minimum spanning forest: one tree per connected component of the graph.
+        public boolean validForest() { return acyclic && minimal; }
+        public double timeMs() { return structureMs + minimalityMs; }
+    }
+
+    public static Result verify(Graph g, List<Edge> tree) {
+        CsrGraph csr = g.csr();
+        int k = tree.size();
+        int[] tu = new int[k];
+        int[] tv = new int[k];
+        double[] tw = new double[k];
+        for (int i = 0; i < k; i++) {
+            Edge e = tree.get(i);
+            tu[i] = csr.indexOf(e.getU());
+            tv[i] = csr.indexOf(e.getV());
+            tw[i] = e.getWeight();
+        }
+        return verify(csr, tu, tv, tw);
+    }
+
+    // spanning: the tree edges are graph edges and connect all vertices; acyclic: no tree edge closes a cycle.
+    // minimal: every graph edge is at least as heavy as the heaviest tree edge on the path between its endpoints.
+    public static Result verify(CsrGraph csr, int[] tu, int[] tv, double[] tw) {
+        long t0 = System.nanoTime();
+        int n = csr.vertexCount();
+        int k = tu.length;
+
+        boolean inGraph = true;
+        boolean acyclic = true;
+        IntUnionFind uf = new IntUnionFind(n);
+        for (int i = 0; i < k && inGraph; i++) {
+            if (tu[i] < 0 || tv[i] < 0 || !hasEdge(csr, tu[i], tv[i], tw[i])) {
+                inGraph = false;
+                break;
+            }
+            if (!uf.union(tu[i], tv[i])) acyclic = false;
+        }
+        int treeComponents = uf.components();
+        int graphComponents = csr.componentCount();
+        boolean spanning = inGraph && acyclic && treeComponents <= 1;
+        long t1 = System.nanoTime();
+
+        boolean minimal = inGraph && acyclic && treeComponents == graphComponents && cycleProperty(csr, tu, tv, tw);
+        long t2 = System.nanoTime();
+        return new Result(spanning, acyclic, minimal, treeComponents, graphComponents,
+                (t1 - t0) / 1_000_000.0, (t2 - t1) / 1_000_000.0);
+    }
+
+    // Binary lifting over the (acyclic) tree: up[j][v] is the 2^j-th ancestor, mx[j][v] the heaviest edge on that hop.
+    private static boolean cycleProperty(CsrGraph csr, int[] tu, int[] tv, double[] tw) {
+        int n = csr.vertexCount();
+        if (n == 0) return true;
+        int k = tu.length;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < k; i++) {
+            offsets[tu[i] + 1]++;
+            offsets[tv[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) offsets[i + 1] += offsets[i];
+        int[] adj = new int[2 * k];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < k; i++) {
+            adj[cursor[tu[i]]++] = i;
+            adj[cursor[tv[i]]++] = i;
+        }
+
+        int log = 1;
+        while ((1 << log) < n) log++;
+        int[][] up = new int[log][n];
+        double[][] mx = new double[log][n];
+        int[] depth = new int[n];
+        int[] root = new int[n];
+        Arrays.fill(root, -1);
+        int[] queue = new int[n];
+
+        for (int s = 0; s < n; s++) {
+            if (root[s] >= 0) continue;
+            int head = 0, tail = 0;
+            queue[tail++] = s;
+            root[s] = s;
+            up[0][s] = s;
+            mx[0][s] = Double.NEGATIVE_INFINITY;
+            while (head < tail) {
+                int x = queue[head++];
+                for (int i = offsets[x]; i < offsets[x + 1]; i++) {
+                    int t = adj[i];
+                    int y = tu[t] == x ? tv[t] : tu[t];
+                    if (root[y] >= 0) continue;
+                    root[y] = s;
+                    depth[y] = depth[x] + 1;
+                    up[0][y] = x;
+                    mx[0][y] = tw[t];
+                    queue[tail++] = y;
+                }
+            }
+        }
+        for (int j = 1; j < log; j++) {
+            int[] prevUp = up[j - 1], curUp = up[j];
+            double[] prevMx = mx[j - 1], curMx = mx[j];
+            for (int v = 0; v < n; v++) {
+                int mid = prevUp[v];
+                curUp[v] = prevUp[mid];
+                curMx[v] = Math.max(prevMx[v], prevMx[mid]);
+            }
+        }
+
+        for (int e = 0; e < csr.edgeCount(); e++) {
+            int a = csr.edgeU(e), b = csr.edgeV(e);
+            if (a == b) continue;
+            if (root[a] != root[b]) return false;
+            if (csr.weight(e) < pathMax(a, b, depth, up, mx)) return false;
+        }
+        return true;
+    }
+
+    private static double pathMax(int a, int b, int[] depth, int[][] up, double[][] mx) {
+        double best = Double.NEGATIVE_INFINITY;
+        if (depth[a] < depth[b]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int diff = depth[a] - depth[b];
+        for (int j = 0; diff > 0; j++, diff >>= 1) {
+            if ((diff & 1) != 0) {
+                best = Math.max(best, mx[j][a]);
+                a = up[j][a];
+            }
+        }
+        if (a == b) return best;
+        for (int j = up.length - 1; j >= 0; j--) {
+            if (up[j][a] != up[j][b]) {
+                best = Math.max(best, Math.max(mx[j][a], mx[j][b]));
+                a = up[j][a];
+                b = up[j][b];
+            }
+        }
+        return Math.max(best, Math.max(mx[0][a], mx[0][b]));
+    }
+
+    // Scans the adjacency of the lower-degree endpoint, so no per-edge hashing is needed.
+    private static boolean hasEdge(CsrGraph csr, int u, int v, double w) {
+        if (csr.degree(v) < csr.degree(u)) {
+            int t = u;
+            u = v;
+            v = t;
+        }
+        for (int i = csr.begin(u), end = csr.end(u); i < end; i++) {
+            if (csr.target(i) == v && Double.compare(csr.weight(csr.edgeAt(i)), w) == 0) return true;
+        }
+        return false;
+    }
+}
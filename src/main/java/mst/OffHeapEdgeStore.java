@@ -0,0 +1,195 @@
+package mst;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/*
+ * Packed edge list outside the Java heap: 16-byte records (int u, int v, double w) in fixed-size chunks.
+ * Chunks are either direct buffers or windows of a memory-mapped spill file; the mapped form is bounded by
+ * disk and page cache rather than -Xmx or -XX:MaxDirectMemorySize. Edge positions are longs.
+ */
+public final class OffHeapEdgeStore implements Closeable {
+    public static final int RECORD_BYTES = 16;
+    static final int DEFAULT_CHUNK_SHIFT = 20;
+    private static final int DIGIT_BITS = 16;
+    private static final int DIGITS = 64 / DIGIT_BITS;
+
+    private final int vertexCount;
+    private final int chunkShift;
+    private final long chunkMask;
+    private final Path spillDir;
+    private FileChannel channel;
+    private Path file;
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private int chunkCount = 0;
+    private long size = 0;
+
+    OffHeapEdgeStore(int vertexCount, Path spillDir, int chunkShift) throws IOException {
+        if (vertexCount < 0) throw new IllegalArgumentException("vertexCount must be non-negative: " + vertexCount);
+        this.vertexCount = vertexCount;
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+        this.spillDir = spillDir;
+        if (spillDir != null) {
+            Files.createDirectories(spillDir);
+            file = Files.createTempFile(spillDir, "edges", ".bin");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+    }
+
+    public static OffHeapEdgeStore direct(int vertexCount) {
+        try {
+            return new OffHeapEdgeStore(vertexCount, null, DEFAULT_CHUNK_SHIFT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static OffHeapEdgeStore mapped(int vertexCount, Path spillDir) throws IOException {
+        return new OffHeapEdgeStore(vertexCount, spillDir, DEFAULT_CHUNK_SHIFT);
+    }
+
+    public static OffHeapEdgeStore of(CsrGraph csr) {
+        OffHeapEdgeStore store = direct(csr.vertexCount());
+        for (int e = 0; e < csr.edgeCount(); e++) store.add(csr.edgeU(e), csr.edgeV(e), csr.weight(e));
+        return store;
+    }
+
+    // Copies a graph record straight from the mapped .mstg file; spillDir == null keeps the edges in direct memory.
+    public static OffHeapEdgeStore of(BinaryGraphFile.MappedGraph g, Path spillDir) throws IOException {
+        OffHeapEdgeStore store = new OffHeapEdgeStore(g.vertexCount, spillDir, DEFAULT_CHUNK_SHIFT);
+        IntBuffer us = g.edgeU();
+        IntBuffer vs = g.edgeV();
+        DoubleBuffer ws = g.weights();
+        while (us.hasRemaining()) store.add(us.get(), vs.get(), ws.get());
+        return store;
+    }
+
+    public int vertexCount() { return vertexCount; }
+    public long size() { return size; }
+    public boolean isMapped() { return channel != null; }
+
+    public long footprintBytes() { return (long) chunkCount << (chunkShift + 4); }
+
+    public void add(int u, int v, double w) {
+        if (u < 0 || u >= vertexCount || v < 0 || v >= vertexCount) {
+            throw new IllegalArgumentException("Edge " + u + "-" + v + " is outside 0.." + (vertexCount - 1));
+        }
+        if ((size >>> chunkShift) == chunkCount) addChunk();
+        set(size++, u, v, w);
+    }
+
+    public int u(long i) { return chunk(i).getInt(offset(i)); }
+    public int v(long i) { return chunk(i).getInt(offset(i) + 4); }
+    public double weight(long i) { return chunk(i).getDouble(offset(i) + 8); }
+
+    void set(long i, int u, int v, double w) {
+        ByteBuffer c = chunk(i);
+        int off = offset(i);
+        c.putInt(off, u);
+        c.putInt(off + 4, v);
+        c.putDouble(off + 8, w);
+    }
+
+    private ByteBuffer chunk(long i) { return chunks[(int) (i >>> chunkShift)]; }
+    private int offset(long i) { return (int) (i & chunkMask) << 4; }
+
+    private void addChunk() {
+        int bytes = RECORD_BYTES << chunkShift;
+        ByteBuffer b;
+        if (channel == null) {
+            b = ByteBuffer.allocateDirect(bytes);
+        } else {
+            try {
+                b = channel.map(FileChannel.MapMode.READ_WRITE, (long) chunkCount * bytes, bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (chunkCount == chunks.length) chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        chunks[chunkCount++] = b.order(ByteOrder.nativeOrder());
+    }
+
+    /*
+     * Stable LSD radix sort of the records by weight, 16 bits per pass over order-preserving weight keys.
+     * Stability keeps input order among equal weights, the same tie-break as EdgeSort. Passes whose digit is
+     * constant across all records are skipped, so small integral weights usually need one or two passes.
+     * Returns the number of scatter passes performed.
+     */
+    public int sortByWeight() throws IOException {
+        long[][] counts = new long[DIGITS][1 << DIGIT_BITS];
+        for (long i = 0; i < size; i++) {
+            long key = EdgeSort.sortableKey(weight(i));
+            for (int d = 0; d < DIGITS; d++) counts[d][(int) (key >>> (d * DIGIT_BITS)) & 0xFFFF]++;
+        }
+        int passes = 0;
+        OffHeapEdgeStore scratch = null;
+        try {
+            for (int d = 0; d < DIGITS; d++) {
+                long[] c = counts[d];
+                boolean trivial = false;
+                for (long x : c) {
+                    if (x == size) trivial = true;
+                    if (x != 0) break;
+                }
+                if (trivial || size < 2) continue;
+                long sum = 0;
+                for (int b = 0; b < c.length; b++) {
+                    long x = c[b];
+                    c[b] = sum;
+                    sum += x;
+                }
+                if (scratch == null) {
+                    scratch = new OffHeapEdgeStore(vertexCount, spillDir, chunkShift);
+                    while (scratch.chunkCount < chunkCount) scratch.addChunk();
+                    scratch.size = size;
+                }
+                int shift = d * DIGIT_BITS;
+                for (long i = 0; i < size; i++) {
+                    double w = weight(i);
+                    int digit = (int) (EdgeSort.sortableKey(w) >>> shift) & 0xFFFF;
+                    scratch.set(c[digit]++, u(i), v(i), w);
+                }
+                swapStorage(scratch);
+                passes++;
+            }
+        } finally {
+            if (scratch != null) scratch.close();
+        }
+        return passes;
+    }
+
+    private void swapStorage(OffHeapEdgeStore other) {
+        ByteBuffer[] c = chunks;
+        chunks = other.chunks;
+        other.chunks = c;
+        int n = chunkCount;
+        chunkCount = other.chunkCount;
+        other.chunkCount = n;
+        FileChannel ch = channel;
+        channel = other.channel;
+        other.channel = ch;
+        Path f = file;
+        file = other.file;
+        other.file = f;
+    }
+
+    // Direct and mapped chunks are released when their buffers are collected; the spill file is removed here.
+    @Override
+    public void close() throws IOException {
+        chunks = new ByteBuffer[0];
+        chunkCount = 0;
+        size = 0;
+        if (channel != null) {
+            try {
+                channel.close();
+            } finally {
+                channel = null;
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
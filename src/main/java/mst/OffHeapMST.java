@@ -0,0 +1,193 @@
+package mst;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+// MST engines over an OffHeapEdgeStore. Only O(V) state lives on the heap; both engines rewrite the store in place.
+public class OffHeapMST {
+    private static final int RANGE = 1 << 16;
+    private static final int VERTEX_GRAIN = 8192;
+
+    public static class Result {
+        public final OffHeapEdgeStore tree;
+        public final double totalCost;
+        public final Map<String, Long> ops;
+        public final double timeMs;
+
+        public Result(OffHeapEdgeStore tree, double totalCost, Map<String, Long> ops, double timeMs) {
+            this.tree = tree;
+            this.totalCost = totalCost;
+            this.ops = ops;
+            this.timeMs = timeMs;
+        }
+
+        public List<Edge> toEdges(IntFunction<String> label) {
+            List<Edge> out = new ArrayList<>((int) Math.min(Integer.MAX_VALUE, tree.size()));
+            for (long i = 0; i < tree.size(); i++) {
+                out.add(new Edge(label.apply(tree.u(i)), label.apply(tree.v(i)), tree.weight(i)));
+            }
+            return out;
+        }
+    }
+
+    // Radix-sorts the store by weight, then streams it once through an IntUnionFind.
+    public static Result kruskal(OffHeapEdgeStore edges) throws IOException {
+        long t0 = System.nanoTime();
+        int passes = edges.sortByWeight();
+        long tSort = System.nanoTime();
+
+        int n = edges.vertexCount();
+        IntUnionFind uf = new IntUnionFind(n);
+        OffHeapEdgeStore tree = OffHeapEdgeStore.direct(n);
+        int target = Math.max(0, n - 1);
+        double totalCost = 0.0;
+        long edgeConsidered = 0;
+        for (long i = 0; i < edges.size() && tree.size() < target; i++) {
+            edgeConsidered++;
+            int u = edges.u(i), v = edges.v(i);
+            if (uf.union(u, v)) {
+                double w = edges.weight(i);
+                tree.add(u, v, w);
+                totalCost += w;
+            }
+        }
+
+        long t1 = System.nanoTime();
+        Metrics.global().recordPhase(Metrics.Phase.SORT, t0, tSort);
+        Metrics.global().recordPhase(Metrics.Phase.UNION_FIND, tSort, t1);
+        Map<String, Long> ops = new LinkedHashMap<>();
+        ops.put("edge_considered", edgeConsidered);
+        ops.put("find_calls", uf.getFindCalls());
+        ops.put("unions", uf.getUnions());
+        ops.put("radix_passes", (long) passes);
+        ops.put("off_heap_bytes", edges.footprintBytes());
+        return new Result(tree, totalCost, ops, (t1 - t0) / 1_000_000.0);
+    }
+
+    public static Result boruvka(OffHeapEdgeStore edges) {
+        return boruvka(edges, ForkJoinPool.commonPool());
+    }
+
+    /*
+     * Borůvka rounds over fixed ranges of the store. Each round compacts the surviving inter-component edges to the
+     * front of their range, preserving relative order, so position is a consistent tie-break within the round.
+     */
+    public static Result boruvka(OffHeapEdgeStore edges, ForkJoinPool pool) {
+        long t0 = System.nanoTime();
+        int n = edges.vertexCount();
+        long m = edges.size();
+        int chunks = (int) ((m + RANGE - 1) / RANGE);
+        long[] chunkLen = new long[chunks];
+        for (int c = 0; c < chunks; c++) chunkLen[c] = Math.min(RANGE, m - (long) c * RANGE);
+
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(n);
+        AtomicLongArray cheapest = new AtomicLongArray(n);
+        for (int i = 0; i < n; i++) cheapest.set(i, -1);
+        long[] accepted = new long[n];
+
+        OffHeapEdgeStore tree = OffHeapEdgeStore.direct(n);
+        Map<String, Long> ops = new LinkedHashMap<>();
+        double totalCost = 0.0;
+        long rounds = 0;
+        long edgesScanned = 0;
+        int components = n;
+        LongAdder scanned = new LongAdder();
+
+        while (components > 1) {
+            scanned.reset();
+            Parallel.forEach(pool, chunks, 1, c -> {
+                long base = (long) c * RANGE;
+                long len = chunkLen[c];
+                long kept = 0;
+                for (long i = 0; i < len; i++) {
+                    long e = base + i;
+                    int u = edges.u(e), v = edges.v(e);
+                    int ru = uf.find(u);
+                    int rv = uf.find(v);
+                    if (ru == rv) continue;
+                    long to = base + kept++;
+                    if (to != e) edges.set(to, u, v, edges.weight(e));
+                    offer(cheapest, ru, to, edges);
+                    offer(cheapest, rv, to, edges);
+                }
+                chunkLen[c] = kept;
+                scanned.add(len);
+            });
+
+            Parallel.forEach(pool, n, VERTEX_GRAIN, v -> {
+                long e = cheapest.get(v);
+                accepted[v] = -1;
+                if (e < 0) return;
+                cheapest.set(v, -1);
+                if (uf.union(edges.u(e), edges.v(e))) accepted[v] = e;
+            });
+
+            int merged = 0;
+            for (int v = 0; v < n; v++) {
+                long e = accepted[v];
+                if (e < 0) continue;
+                double w = edges.weight(e);
+                tree.add(edges.u(e), edges.v(e), w);
+                totalCost += w;
+                merged++;
+            }
+
+            rounds++;
+            edgesScanned += scanned.sum();
+            components -= merged;
+            if (merged == 0) break;
+        }
+
+        long t1 = System.nanoTime();
+        Metrics.global().recordPhase(Metrics.Phase.UNION_FIND, t0, t1);
+        ops.put("rounds", rounds);
+        ops.put("edges_scanned", edgesScanned);
+        ops.put("components", (long) components);
+        ops.put("find_calls", uf.getFindCalls());
+        ops.put("unions", uf.getUnions());
+        ops.put("parallelism", (long) pool.getParallelism());
+        ops.put("off_heap_bytes", edges.footprintBytes());
+        return new Result(tree, totalCost, ops, (t1 - t0) / 1_000_000.0);
+    }
+
+    private static void offer(AtomicLongArray cheapest, int root, long e, OffHeapEdgeStore edges) {
+        double w = edges.weight(e);
+        while (true) {
+            long cur = cheapest.get(root);
+            if (cur >= 0) {
+                int c = Double.compare(w, edges.weight(cur));
+                if (c > 0 || (c == 0 && e >= cur)) return;
+            }
+            if (cheapest.compareAndSet(root, cur, e)) return;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: OffHeapMST <graphs.mstg> [--boruvka] [--spill=dir]");
+            System.exit(2);
+        }
+        boolean boruvka = false;
+        Path spill = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--boruvka")) boruvka = true;
+            else if (args[i].startsWith("--spill=")) spill = Paths.get(args[i].substring("--spill=".length()));
+        }
+        try (BinaryGraphFile.Reader reader = BinaryGraphFile.open(Paths.get(args[0]))) {
+            BinaryGraphFile.MappedGraph g;
+            while ((g = reader.nextMapped()) != null) {
+                try (OffHeapEdgeStore store = OffHeapEdgeStore.of(g, spill)) {
+                    Result r = boruvka ? boruvka(store) : kruskal(store);
+                    System.out.printf("%s: V=%d E=%d cost=%.2f tree=%d time=%s ops=%s%n", g.name, g.vertexCount,
+                            g.edgeCount, r.totalCost, r.tree.size(), ResultWriter.formatMs(r.timeMs), r.ops);
+                    r.tree.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package mst;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+final class Parallel {
+    private Parallel() {}
+
+    // Runs body(i) for every i in [0, count), splitting into tasks of at most grain indices.
+    static void forEach(ForkJoinPool pool, int count, int grain, IntConsumer body) {
+        if (count <= 0) return;
+        if (count <= grain || pool.getParallelism() == 1) {
+            for (int i = 0; i < count; i++) body.accept(i);
+            return;
+        }
+        pool.invoke(new RangeTask(0, count, Math.max(1, grain), body));
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final IntConsumer body;
+
+        RangeTask(int from, int to, int grain, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                for (int i = from; i < to; i++) body.accept(i);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, grain, body), new RangeTask(mid, to, grain, body));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package mst;
+
+// Coordinates of a geometric graph entry: point i is vertex i of the entry's (edgeless) Graph.
+public final class PointSet {
+    public final int dims;
+    // Per-entry approximation factor for EuclideanMST; 0 asks for the exact tree.
+    public final double epsilon;
+    private final double[] coords;
+    private final int size;
+
+    public PointSet(int dims, double[] coords, int size, double epsilon) {
+        if (dims < 1) throw new IllegalArgumentException("dims must be positive: " + dims);
+        if ((long) size * dims > coords.length) throw new IllegalArgumentException("coords shorter than " + size + " points");
+        if (epsilon < 0 || Double.isNaN(epsilon)) throw new IllegalArgumentException("epsilon must be non-negative: " + epsilon);
+        this.dims = dims;
+        this.coords = coords;
+        this.size = size;
+        this.epsilon = epsilon;
+    }
+
+    public int size() { return size; }
+
+    public double coord(int i, int d) { return coords[i * dims + d]; }
+
+    double[] coordArray() { return coords; }
+
+    public double distance(int a, int b) {
+        return Math.sqrt(distance2(a, b));
+    }
+
+    double distance2(int a, int b) {
+        double s = 0;
+        int pa = a * dims, pb = b * dims;
+        for (int d = 0; d < dims; d++) {
+            double x = coords[pa + d] - coords[pb + d];
+            s += x * x;
+        }
+        return s;
+    }
+}
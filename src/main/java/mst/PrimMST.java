@@ -18,11 +18,11 @@ public class PrimMST {
     }
 
     private static class PQNode implements Comparable<PQNode> {
-        final String from;
-        final String to;
+        final int from;
+        final int to;
         final double weight;
 
-        PQNode(String from, String to, double weight) {
+        PQNode(int from, int to, double weight) {
             this.from = from;
             this.to = to;
             this.weight = weight;
@@ -51,32 +51,34 @@ public class PrimMST {
             return new Result(mst, totalCost, ops, 0.0);
         }
 
-        Set<String> visited = new HashSet<>();
+        CsrGraph csr = g.csr();
+        int n = csr.vertexCount();
+        boolean[] visited = new boolean[n];
         PriorityQueue<PQNode> pq = new PriorityQueue<>();
 
-        for (String start : g.getVertices()) {
-            if (visited.contains(start)) continue;
+        for (int start = 0; start < n; start++) {
+            if (visited[start]) continue;
 
-            visited.add(start);
-            for (Edge e : g.adj(start)) {
-                pq.add(new PQNode(start, e.other(start), e.getWeight()));
+            visited[start] = true;
+            for (int i = csr.begin(start), end = csr.end(start); i < end; i++) {
+                pq.add(new PQNode(start, csr.target(i), csr.weight(csr.edgeAt(i))));
                 heapPushes++;
             }
 
             while (!pq.isEmpty()) {
                 PQNode node = pq.poll();
                 heapPops++;
-                if (visited.contains(node.to)) continue;
+                if (visited[node.to]) continue;
 
-                visited.add(node.to);
-                mst.add(new Edge(node.from, node.to, node.weight));
+                visited[node.to] = true;
+                mst.add(new Edge(csr.label(node.from), csr.label(node.to), node.weight));
                 totalCost += node.weight;
 
-                for (Edge e : g.adj(node.to)) {
+                for (int i = csr.begin(node.to), end = csr.end(node.to); i < end; i++) {
                     edgeExams++;
-                    String other = e.other(node.to);
-                    if (!visited.contains(other)) {
-                        pq.add(new PQNode(node.to, other, e.getWeight()));
+                    int other = csr.target(i);
+                    if (!visited[other]) {
+                        pq.add(new PQNode(node.to, other, csr.weight(csr.edgeAt(i))));
                         heapPushes++;
                     }
                 }
@@ -85,6 +87,7 @@ public class PrimMST {
 
         long t1 = System.nanoTime();
         double timeMs = (t1 - t0) / 1_000_000.0;
+        Metrics.global().recordPhase(Metrics.Phase.TRAVERSAL, t0, t1);
 
         ops.put("edge_examinations", edgeExams);
         ops.put("heap_pushes", heapPushes);
@@ -92,4 +95,69 @@ public class PrimMST {
 
         return new Result(mst, totalCost, ops, timeMs);
     }
+
+    public static Result computeEager(Graph g) {
+        return computeEager(g, 4);
+    }
+
+    public static Result computeEager(Graph g, int arity) {
+        long t0 = System.nanoTime();
+
+        Map<String, Long> ops = new HashMap<>();
+        long edgeExams = 0;
+        long heapPushes = 0;
+        long heapPops = 0;
+        long decreaseKeys = 0;
+
+        CsrGraph csr = g.csr();
+        int n = csr.vertexCount();
+        List<Edge> mst = new ArrayList<>(Math.max(0, n - 1));
+        double totalCost = 0.0;
+
+        boolean[] inTree = new boolean[n];
+        int[] parent = new int[n];
+        IndexedDaryHeap heap = new IndexedDaryHeap(n, arity);
+
+        for (int start = 0; start < n; start++) {
+            if (inTree[start]) continue;
+
+            int v = start;
+            while (true) {
+                inTree[v] = true;
+                for (int i = csr.begin(v), end = csr.end(v); i < end; i++) {
+                    edgeExams++;
+                    int w = csr.target(i);
+                    if (inTree[w]) continue;
+                    double weight = csr.weight(csr.edgeAt(i));
+                    if (!heap.contains(w)) {
+                        heap.insert(w, weight);
+                        parent[w] = v;
+                        heapPushes++;
+                    } else if (weight < heap.key(w)) {
+                        heap.decreaseKey(w, weight);
+                        parent[w] = v;
+                        decreaseKeys++;
+                    }
+                }
+                if (heap.isEmpty()) break;
+
+                double weight = heap.key(heap.peekMin());
+                v = heap.pollMin();
+                heapPops++;
+                mst.add(new Edge(csr.label(parent[v]), csr.label(v), weight));
+                totalCost += weight;
+            }
+        }
+
+        long t1 = System.nanoTime();
+        double timeMs = (t1 - t0) / 1_000_000.0;
+        Metrics.global().recordPhase(Metrics.Phase.TRAVERSAL, t0, t1);
+
+        ops.put("edge_examinations", edgeExams);
+        ops.put("heap_pushes", heapPushes);
+        ops.put("heap_pops", heapPops);
+        ops.put("decrease_keys", decreaseKeys);
+
+        return new Result(mst, totalCost, ops, timeMs);
+    }
 }
@@ -0,0 +1,182 @@
+package mst;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/*
+ * Little-endian edge dump with no size limit, for edge sets far beyond one mappable .mstg record:
+ *   header:  int magic "MSTE", int vertexCount
+ *   records: int u, int v, double w (16 bytes each) up to end of file
+ * u/v are dense vertex indices. Edge positions are longs, and readers stream a range through a reused buffer
+ * instead of mapping it, so a cursor holds one buffer whatever the file size.
+ */
+public final class RawEdgeFile {
+    static final int MAGIC = 0x4D535445;
+    static final int HEADER = 8;
+    public static final int RECORD_BYTES = 16;
+    private static final int BUFFER = 1 << 16;
+
+    private RawEdgeFile() {}
+
+    public static Cursor open(Path path) throws IOException {
+        return new Cursor(path, 0, Long.MAX_VALUE);
+    }
+
+    // Edges [from, to) of the file; to is clamped to the edge count.
+    public static Cursor open(Path path, long from, long to) throws IOException {
+        return new Cursor(path, from, to);
+    }
+
+    public static boolean isRawEdgeFile(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (b.hasRemaining()) {
+                if (ch.read(b) < 0) return false;
+            }
+            b.flip();
+            return b.getInt() == MAGIC;
+        }
+    }
+
+    // Copies the edges of a mapped .mstg graph into a raw file; vertex ids are not kept.
+    public static void convert(BinaryGraphFile.MappedGraph g, Path out) throws IOException {
+        try (Writer w = new Writer(out, g.vertexCount)) {
+            ExternalKruskal.EdgeCursor edges = ExternalKruskal.cursor(g);
+            while (edges.advance()) w.add(edges.u(), edges.v(), edges.weight());
+        }
+    }
+
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        private final int vertexCount;
+        private long edgeCount = 0;
+
+        public Writer(Path path, int vertexCount) throws IOException {
+            if (vertexCount < 0) throw new IllegalArgumentException("vertexCount must be non-negative: " + vertexCount);
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.vertexCount = vertexCount;
+            buf.putInt(MAGIC).putInt(vertexCount);
+        }
+
+        public void add(int u, int v, double w) throws IOException {
+            if (u < 0 || u >= vertexCount || v < 0 || v >= vertexCount) {
+                throw new IllegalArgumentException("Edge " + u + "-" + v + " is outside 0.." + (vertexCount - 1));
+            }
+            if (buf.remaining() < RECORD_BYTES) flush();
+            buf.putInt(u).putInt(v).putDouble(w);
+            edgeCount++;
+        }
+
+        public long edgeCount() { return edgeCount; }
+
+        private void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) channel.write(buf);
+            buf.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    public static final class Cursor implements ExternalKruskal.EdgeCursor, Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        private final int vertexCount;
+        private final long edgeCount;
+        private long position;
+        private long remaining;
+        private int u, v;
+        private double w;
+
+        Cursor(Path path, long from, long to) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+                while (header.hasRemaining()) {
+                    if (channel.read(header, header.position()) < 0) throw new IOException("Not an MSTE edge file: " + path);
+                }
+                header.flip();
+                if (header.getInt() != MAGIC) throw new IOException("Not an MSTE edge file: " + path);
+                this.vertexCount = header.getInt();
+                if ((size - HEADER) % RECORD_BYTES != 0) throw new EOFException("Truncated edge record in " + path);
+                this.edgeCount = (size - HEADER) / RECORD_BYTES;
+                if (from < 0 || from > edgeCount || to < from) {
+                    throw new IllegalArgumentException("Edge range " + from + ".." + to + " outside 0.." + edgeCount);
+                }
+                this.position = HEADER + from * RECORD_BYTES;
+                this.remaining = Math.min(to, edgeCount) - from;
+                buf.limit(0);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        public int vertexCount() { return vertexCount; }
+        public long edgeCount() { return edgeCount; }
+
+        @Override
+        public boolean advance() throws IOException {
+            if (remaining == 0) return false;
+            if (!buf.hasRemaining()) fill();
+            u = buf.getInt();
+            v = buf.getInt();
+            w = buf.getDouble();
+            remaining--;
+            return true;
+        }
+
+        private void fill() throws IOException {
+            buf.clear();
+            buf.limit((int) Math.min(BUFFER, remaining * RECORD_BYTES));
+            while (buf.hasRemaining()) {
+                int read = channel.read(buf, position);
+                if (read < 0) throw new EOFException("Edge file ended early");
+                position += read;
+            }
+            buf.flip();
+        }
+
+        @Override public int u() { return u; }
+        @Override public int v() { return v; }
+        @Override public double weight() { return w; }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: RawEdgeFile <graphs.mstg> <output.mste> [--graph=N]");
+            System.exit(2);
+        }
+        int ordinal = 0;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--graph=")) ordinal = Integer.parseInt(args[i].substring("--graph=".length()));
+        }
+        try (BinaryGraphFile.Reader reader = BinaryGraphFile.open(Paths.get(args[0]))) {
+            BinaryGraphFile.MappedGraph g = null;
+            for (int i = 0; i <= ordinal; i++) {
+                g = reader.nextMapped();
+                if (g == null) throw new IllegalArgumentException("No graph #" + ordinal + " in " + args[0]);
+            }
+            Path out = Paths.get(args[1]);
+            convert(g, out);
+            System.out.println("Wrote " + g.name + " -> " + out + " (" + Files.size(out) + " bytes)");
+        }
+    }
+}
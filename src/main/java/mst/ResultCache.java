@@ -0,0 +1,265 @@
+package mst;
+
+import com.google.gson.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+public class ResultCache {
+    // Bump whenever engine output changes so stale disk entries stop matching.
+    private static final String FORMAT = "mst-result-v3";
+
+    private final long maxBytes;
+    private final Path diskDir;
+    private final LinkedHashMap<String, Runner.Solved> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Long> sizes = new HashMap<>();
+    private long currentBytes = 0;
+
+    private long hits = 0;
+    private long diskHits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public ResultCache(long maxBytes, Path diskDir) {
+        this.maxBytes = maxBytes;
+        this.diskDir = diskDir;
+    }
+
+    // SHA-256 over the vertex labels and the edge list in input order (which decides MST tie-breaks).
+    public static String key(Graph g) {
+        CsrGraph csr = g.csr();
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        md.update(FORMAT.getBytes(StandardCharsets.UTF_8));
+        byte[] buf = new byte[8192];
+        int pos = 0;
+        pos = putInt(md, buf, pos, csr.vertexCount());
+        for (int i = 0; i < csr.vertexCount(); i++) {
+            byte[] label = csr.label(i).getBytes(StandardCharsets.UTF_8);
+            pos = putInt(md, buf, pos, label.length);
+            for (byte b : label) {
+                if (pos == buf.length) pos = flush(md, buf, pos);
+                buf[pos++] = b;
+            }
+        }
+        pos = putInt(md, buf, pos, csr.edgeCount());
+        for (int e = 0; e < csr.edgeCount(); e++) {
+            pos = putInt(md, buf, pos, csr.edgeU(e));
+            pos = putInt(md, buf, pos, csr.edgeV(e));
+            long bits = Double.doubleToLongBits(csr.weight(e));
+            pos = putInt(md, buf, pos, (int) (bits >>> 32));
+            pos = putInt(md, buf, pos, (int) bits);
+        }
+        flush(md, buf, pos);
+        StringBuilder sb = new StringBuilder(64);
+        for (byte b : md.digest()) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+
+    private static int putInt(MessageDigest md, byte[] buf, int pos, int x) {
+        if (pos + 4 > buf.length) pos = flush(md, buf, pos);
+        buf[pos++] = (byte) (x >>> 24);
+        buf[pos++] = (byte) (x >>> 16);
+        buf[pos++] = (byte) (x >>> 8);
+        buf[pos++] = (byte) x;
+        return pos;
+    }
+
+    private static int flush(MessageDigest md, byte[] buf, int pos) {
+        md.update(buf, 0, pos);
+        return 0;
+    }
+
+    public Runner.Solved get(String key, String name) {
+        synchronized (this) {
+            Runner.Solved s = entries.get(key);
+            if (s != null) {
+                hits++;
+                return s.withName(name);
+            }
+        }
+        Runner.Solved s = readDisk(key);
+        synchronized (this) {
+            if (s == null) {
+                misses++;
+                return null;
+            }
+            diskHits++;
+            remember(key, s);
+        }
+        return s.withName(name);
+    }
+
+    public void put(String key, Runner.Solved s) {
+        synchronized (this) {
+            remember(key, s);
+        }
+        writeDisk(key, s);
+    }
+
+    public synchronized Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits);
+        stats.put("disk_hits", diskHits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("entries", (long) entries.size());
+        stats.put("bytes", currentBytes);
+        return stats;
+    }
+
+    private void remember(String key, Runner.Solved s) {
+        long size = estimateBytes(s);
+        if (size > maxBytes) return;
+        Long old = sizes.put(key, size);
+        if (old != null) currentBytes -= old;
+        entries.put(key, s);
+        currentBytes += size;
+        Iterator<Map.Entry<String, Runner.Solved>> it = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            String eldest = it.next().getKey();
+            it.remove();
+            currentBytes -= sizes.remove(eldest);
+            evictions++;
+        }
+    }
+
+    // Rough retained size: each MST edge holds an Edge plus two shared label Strings.
+    private static long estimateBytes(Runner.Solved s) {
+        long bytes = 512 + 64L * (s.prim.mstEdges.size() + s.kruskal.mstEdges.size());
+        if (s.forest != null) bytes += 256 + 64L * s.forest.mstEdges.size() + 48L * s.forest.components.size();
+        return bytes;
+    }
+
+    private Path diskPath(String key) {
+        return diskDir.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+
+    private Runner.Solved readDisk(String key) {
+        if (diskDir == null) return null;
+        Path p = diskPath(key);
+        if (!Files.exists(p)) return null;
+        try (Reader r = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
+            JsonObject o = JsonParser.parseReader(r).getAsJsonObject();
+            JsonObject prim = o.getAsJsonObject("prim");
+            JsonObject kr = o.getAsJsonObject("kruskal");
+            JsonObject forest = o.getAsJsonObject("forest");
+            return new Runner.Solved(null, o.get("V").getAsInt(), o.get("E").getAsInt(),
+                    new PrimMST.Result(edgesFromJson(prim), prim.get("total_cost").getAsDouble(),
+                            opsFromJson(prim), prim.get("time_ms").getAsDouble()),
+                    checkFromJson(prim),
+                    new KruskalMST.Result(edgesFromJson(kr), kr.get("total_cost").getAsDouble(),
+                            opsFromJson(kr), kr.get("time_ms").getAsDouble()),
+                    checkFromJson(kr),
+                    forest == null ? null : forestFromJson(forest),
+                    forest == null ? null : checkFromJson(forest));
+        } catch (IOException | RuntimeException e) {
+            // A corrupt or partial entry is treated as a miss and rewritten after the recomputation.
+            return null;
+        }
+    }
+
+    private void writeDisk(String key, Runner.Solved s) {
+        if (diskDir == null) return;
+        JsonObject o = new JsonObject();
+        o.addProperty("V", s.vertices);
+        o.addProperty("E", s.edges);
+        o.add("prim", block(s.prim.mstEdges, s.prim.totalCost, s.prim.ops, s.prim.timeMs, s.primCheck));
+        o.add("kruskal", block(s.kruskal.mstEdges, s.kruskal.totalCost, s.kruskal.ops, s.kruskal.timeMs, s.kruskalCheck));
+        if (s.forest != null) {
+            JsonObject forest = block(s.forest.mstEdges, s.forest.totalCost, s.forest.ops, s.forest.timeMs, s.forestCheck);
+            JsonArray comps = new JsonArray();
+            for (SpanningForest.Component c : s.forest.components) {
+                JsonArray t = new JsonArray();
+                t.add(c.vertices);
+                t.add(c.edges);
+                t.add(c.treeEdges);
+                t.add(c.totalCost);
+                comps.add(t);
+            }
+            forest.add("components", comps);
+            o.add("forest", forest);
+        }
+        Path p = diskPath(key);
+        try {
+            Files.createDirectories(p.getParent());
+            Path tmp = Files.createTempFile(p.getParent(), key, ".tmp");
+            Files.write(tmp, o.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, p, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write cache entry " + p + ": " + e.getMessage());
+        }
+    }
+
+    private static JsonObject block(List<Edge> edges, double totalCost, Map<String, Long> ops, double timeMs,
+                                    MstVerifier.Result check) {
+        JsonObject b = new JsonObject();
+        JsonArray arr = new JsonArray();
+        for (Edge e : edges) {
+            JsonArray t = new JsonArray();
+            t.add(e.getU());
+            t.add(e.getV());
+            t.add(e.getWeight());
+            arr.add(t);
+        }
+        b.add("mst_edges", arr);
+        b.addProperty("total_cost", totalCost);
+        JsonObject o = new JsonObject();
+        for (Map.Entry<String, Long> en : ops.entrySet()) o.addProperty(en.getKey(), en.getValue());
+        b.add("ops", o);
+        b.addProperty("time_ms", timeMs);
+        JsonObject v = new JsonObject();
+        v.addProperty("spanning", check.spanning);
+        v.addProperty("acyclic", check.acyclic);
+        v.addProperty("minimal", check.minimal);
+        v.addProperty("tree_components", check.treeComponents);
+        v.addProperty("graph_components", check.graphComponents);
+        v.addProperty("structure_ms", check.structureMs);
+        v.addProperty("minimality_ms", check.minimalityMs);
+        b.add("verification", v);
+        return b;
+    }
+
+    private static List<Edge> edgesFromJson(JsonObject block) {
+        List<Edge> edges = new ArrayList<>();
+        for (JsonElement el : block.getAsJsonArray("mst_edges")) {
+            JsonArray t = el.getAsJsonArray();
+            edges.add(new Edge(t.get(0).getAsString(), t.get(1).getAsString(), t.get(2).getAsDouble()));
+        }
+        return edges;
+    }
+
+    private static SpanningForest.Result forestFromJson(JsonObject block) {
+        List<SpanningForest.Component> comps = new ArrayList<>();
+        for (JsonElement el : block.getAsJsonArray("components")) {
+            JsonArray t = el.getAsJsonArray();
+            comps.add(new SpanningForest.Component(comps.size(), t.get(0).getAsInt(), t.get(1).getAsInt(),
+                    t.get(2).getAsInt(), t.get(3).getAsDouble()));
+        }
+        return new SpanningForest.Result(edgesFromJson(block), block.get("total_cost").getAsDouble(),
+                opsFromJson(block), block.get("time_ms").getAsDouble(), comps);
+    }
+
+    private static MstVerifier.Result checkFromJson(JsonObject block) {
+        JsonObject v = block.getAsJsonObject("verification");
+        return new MstVerifier.Result(v.get("spanning").getAsBoolean(), v.get("acyclic").getAsBoolean(),
+                v.get("minimal").getAsBoolean(), v.get("tree_components").getAsInt(),
+                v.get("graph_components").getAsInt(), v.get("structure_ms").getAsDouble(),
+                v.get("minimality_ms").getAsDouble());
+    }
+
+    private static Map<String, Long> opsFromJson(JsonObject block) {
+        Map<String, Long> ops = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonElement> en : block.getAsJsonObject("ops").entrySet()) {
+            ops.put(en.getKey(), en.getValue().getAsLong());
+        }
+        return ops;
+    }
+}
@@ -0,0 +1,189 @@
+package mst;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+public class ResultWriter implements Closeable {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String[] CSV_HEADER = {
+            "name", "V", "E",
+            "prim_cost", "kruskal_cost",
+            "prim_time_ms", "kruskal_time_ms",
+            "prim_ops", "kr_ops", "cached"
+    };
+
+    private final JsonWriter json;
+    private final Writer csv;
+
+    public ResultWriter(Path jsonPath, Path csvPath, boolean pretty) throws IOException {
+        this(Files.newBufferedWriter(jsonPath, StandardCharsets.UTF_8),
+                Files.newBufferedWriter(csvPath, StandardCharsets.UTF_8), pretty);
+    }
+
+    public ResultWriter(Writer jsonOut, Writer csvOut, boolean pretty) throws IOException {
+        this.json = new JsonWriter(jsonOut);
+        if (pretty) json.setIndent("  ");
+        this.csv = csvOut;
+        json.beginObject();
+        json.name("datasets");
+        json.beginArray();
+        summaryRow(CSV_HEADER);
+    }
+
+    public void beginDataset(String name, int vertices, int edges) throws IOException {
+        json.beginObject();
+        json.name("id").value(name);
+        json.name("V").value(vertices);
+        json.name("E").value(edges);
+    }
+
+    // A block replayed from ResultCache: time_ms and the verification timings inside it are the original run's.
+    public void cached(double lookupMs) throws IOException {
+        json.name("cached").value(true);
+        json.name("lookup_ms").value(formatMs(lookupMs));
+    }
+
+    public void algorithm(String key, List<Edge> mstEdges, double totalCost, Map<String, Long> ops,
+                          double timeMs, boolean valid) throws IOException {
+        beginAlgorithm(key, mstEdges, totalCost, ops, timeMs, valid);
+        json.endObject();
+    }
+
+    public void algorithm(String key, List<Edge> mstEdges, double totalCost, Map<String, Long> ops,
+                          double timeMs, boolean valid, MstVerifier.Result check) throws IOException {
+        beginAlgorithm(key, mstEdges, totalCost, ops, timeMs, valid);
+        verification(check);
+        json.endObject();
+    }
+
+    public void forest(SpanningForest.Result forest, MstVerifier.Result check) throws IOException {
+        beginAlgorithm("forest", forest.mstEdges, forest.totalCost, forest.ops, forest.timeMs, check.validForest());
+        verification(check);
+        json.name("components");
+        json.beginArray();
+        for (SpanningForest.Component c : forest.components) {
+            json.beginObject();
+            json.name("id").value(c.id);
+            json.name("V").value(c.vertices);
+            json.name("E").value(c.edges);
+            json.name("tree_edges").value(c.treeEdges);
+            json.name("total_cost").value(c.totalCost);
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    private void verification(MstVerifier.Result check) throws IOException {
+        json.name("verification");
+        json.beginObject();
+        json.name("spanning").value(check.spanning);
+        json.name("acyclic").value(check.acyclic);
+        json.name("minimal").value(check.minimal);
+        json.name("structure_ms").value(formatMs(check.structureMs));
+        json.name("minimality_ms").value(formatMs(check.minimalityMs));
+        json.endObject();
+    }
+
+    private void beginAlgorithm(String key, List<Edge> mstEdges, double totalCost, Map<String, Long> ops,
+                                double timeMs, boolean valid) throws IOException {
+        json.name(key);
+        json.beginObject();
+        json.name("mst_edges");
+        json.beginArray();
+        for (Edge e : mstEdges) {
+            json.beginArray();
+            json.value(e.getU());
+            json.value(e.getV());
+            json.value(e.getWeight());
+            json.endArray();
+        }
+        json.endArray();
+        json.name("total_cost").value(totalCost);
+        json.name("ops");
+        json.beginObject();
+        for (Map.Entry<String, Long> en : ops.entrySet()) json.name(en.getKey()).value(en.getValue());
+        json.endObject();
+        json.name("time_ms").value(formatMs(timeMs));
+        json.name("valid").value(valid);
+    }
+
+    public void endDataset() throws IOException {
+        json.endObject();
+        json.flush();
+    }
+
+    public void summary(String name, int vertices, int edges, PrimMST.Result prim, KruskalMST.Result kruskal) throws IOException {
+        summary(name, vertices, edges, prim, kruskal, false);
+    }
+
+    public void summary(String name, int vertices, int edges, PrimMST.Result prim, KruskalMST.Result kruskal,
+                        boolean cached) throws IOException {
+        summaryRow(
+                name,
+                String.valueOf(vertices),
+                String.valueOf(edges),
+                String.valueOf(prim.totalCost),
+                String.valueOf(kruskal.totalCost),
+                formatMs(prim.timeMs),
+                formatMs(kruskal.timeMs),
+                GSON.toJson(prim.ops),
+                GSON.toJson(kruskal.ops),
+                String.valueOf(cached)
+        );
+    }
+
+    // Point entries have no Prim run; the Euclidean tree fills the kruskal columns and the prim ones stay empty.
+    public void summary(String name, int vertices, int edges, EuclideanMST.Result euclidean) throws IOException {
+        summaryRow(
+                name,
+                String.valueOf(vertices),
+                String.valueOf(edges),
+                "",
+                String.valueOf(euclidean.totalCost),
+                "",
+                formatMs(euclidean.timeMs),
+                "",
+                GSON.toJson(euclidean.ops),
+                "false"
+        );
+    }
+
+    public void summaryRow(String... cells) throws IOException {
+        csv.write(String.join(",", escapeCsvRow(cells)));
+        csv.write(System.lineSeparator());
+    }
+
+    static String formatMs(double timeMs) {
+        return String.format(Locale.ROOT, "%.3fms", timeMs);
+    }
+
+    private static String[] escapeCsvRow(String[] row) {
+        String[] out = new String[row.length];
+        for (int i = 0; i < row.length; i++) {
+            String s = row[i];
+            if (s == null) s = "";
+            if (s.contains(",") || s.contains("\"") || s.contains("\n")) {
+                s = "\"" + s.replace("\"", "\"\"") + "\"";
+            }
+            out[i] = s;
+        }
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            json.endArray();
+            json.endObject();
+            json.close();
+        } finally {
+            csv.close();
+        }
+    }
+}
@@ -1,16 +1,35 @@
 package mst;
 
-import com.google.gson.*;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
 
 public class Runner {
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-
     public static void main(String[] args) throws IOException {
         String dataDir = "data";
-        if (args.length >= 1) dataDir = args[0];
+        boolean pretty = true;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queueCapacity = 64;
+        boolean virtualThreads = false;
+        boolean binary = false;
+        boolean cache = false;
+        boolean forest = false;
+        long cacheMb = 256;
+        int metricsPort = -1;
+        String metricsJson = null;
+        for (String arg : args) {
+            if (arg.equals("--compact")) pretty = false;
+            else if (arg.equals("--virtual")) virtualThreads = true;
+            else if (arg.equals("--binary")) binary = true;
+            else if (arg.equals("--cache")) cache = true;
+            else if (arg.equals("--forest")) forest = true;
+            else if (arg.startsWith("--cache-mb=")) cacheMb = Long.parseLong(arg.substring("--cache-mb=".length()));
+            else if (arg.startsWith("--metrics-port=")) metricsPort = Integer.parseInt(arg.substring("--metrics-port=".length()));
+            else if (arg.startsWith("--metrics-json=")) metricsJson = arg.substring("--metrics-json=".length());
+            else if (arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring("--threads=".length()));
+            else if (arg.startsWith("--queue=")) queueCapacity = Integer.parseInt(arg.substring("--queue=".length()));
+            else dataDir = arg;
+        }
 
         List<Path> inputFiles = new ArrayList<>();
         try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(dataDir), "assign_3_input_*.json")) {
@@ -26,157 +45,179 @@ public class Runner {
 
         System.out.println("Found " + inputFiles.size() + " input datasets.");
 
-        for (Path inputPath : inputFiles) {
-            processDataset(inputPath);
+        ResultCache resultCache = cache ? new ResultCache(cacheMb << 20, Paths.get(dataDir, ".mst-cache")) : null;
+        MetricsServer metricsServer = metricsPort >= 0 ? new MetricsServer(Metrics.global(), metricsPort) : null;
+        if (metricsServer != null) System.out.println("Metrics: http://localhost:" + metricsServer.port() + "/metrics");
+        try (DatasetPipeline pipeline = new DatasetPipeline(threads, queueCapacity, virtualThreads)) {
+            pipeline.binaryInput(binary).cache(resultCache).spanningForest(forest).process(inputFiles, pretty);
+        } finally {
+            if (metricsServer != null) metricsServer.close();
+        }
+        if (resultCache != null) System.out.println("Result cache: " + resultCache.stats());
+        if (metricsJson != null) {
+            try (Writer w = Files.newBufferedWriter(Paths.get(metricsJson))) {
+                Metrics.global().writeJson(w);
+            }
+            System.out.println("Metrics JSON saved to: " + metricsJson);
         }
 
         System.out.println("\n All datasets processed successfully!");
     }
 
-    private static void processDataset(Path inputPath) throws IOException {
-        String fileName = inputPath.getFileName().toString();
-        String baseName = fileName.replace("input", "output").replace(".json", "");
-        String outputPath = inputPath.getParent().resolve(baseName + ".json").toString();
-        String summaryCsv = inputPath.getParent().resolve(baseName + "_summary.csv").toString();
-
-        System.out.println("\n Processing: " + fileName);
-
-        String inputJson = new String(Files.readAllBytes(inputPath));
-        JsonElement rootElem = JsonParser.parseString(inputJson);
-
-        JsonArray graphs;
-        if (rootElem.isJsonObject() && rootElem.getAsJsonObject().has("graphs")) {
-            graphs = rootElem.getAsJsonObject().getAsJsonArray("graphs");
-        } else if (rootElem.isJsonArray()) {
-            graphs = rootElem.getAsJsonArray();
-        } else {
-            throw new IllegalStateException("Invalid JSON format in " + fileName);
+    static final class Solved {
+        final String name;
+        final int vertices;
+        final int edges;
+        final PrimMST.Result prim;
+        final MstVerifier.Result primCheck;
+        final KruskalMST.Result kruskal;
+        final MstVerifier.Result kruskalCheck;
+        // Only set in spanning-forest mode.
+        final SpanningForest.Result forest;
+        final MstVerifier.Result forestCheck;
+        // Only set for point entries, which have no prim/kruskal results.
+        final EuclideanMST.Result euclidean;
+        // Served from a ResultCache: the engine and verifier timings are the original run's, lookupMs is this one's.
+        final boolean cached;
+        final double lookupMs;
+
+        Solved(String name, int vertices, int edges, PrimMST.Result prim, MstVerifier.Result primCheck,
+               KruskalMST.Result kruskal, MstVerifier.Result kruskalCheck) {
+            this(name, vertices, edges, prim, primCheck, kruskal, kruskalCheck, null, null);
         }
 
-        JsonArray outDatasets = new JsonArray();
-        List<String[]> csvRows = new ArrayList<>();
-        csvRows.add(new String[]{
-                "name", "V", "E",
-                "prim_cost", "kruskal_cost",
-                "prim_time_ms", "kruskal_time_ms",
-                "prim_ops", "kr_ops"
-        });
-
-        for (JsonElement gElem : graphs) {
-            JsonObject gObj = gElem.getAsJsonObject();
-            String name = gObj.has("id") ? "graph_" + gObj.get("id").getAsString() : "unnamed";
-
-            List<String> vertices = new ArrayList<>();
-            if (gObj.has("vertices")) {
-                JsonArray vArr = gObj.getAsJsonArray("vertices");
-                for (JsonElement ve : vArr) vertices.add(String.valueOf(ve.getAsInt()));
-            } else if (gObj.has("n")) {
-                int n = gObj.get("n").getAsInt();
-                for (int i = 0; i < n; i++) vertices.add(String.valueOf(i));
-            }
+        Solved(String name, int vertices, int edges, PrimMST.Result prim, MstVerifier.Result primCheck,
+               KruskalMST.Result kruskal, MstVerifier.Result kruskalCheck,
+               SpanningForest.Result forest, MstVerifier.Result forestCheck) {
+            this(name, vertices, edges, prim, primCheck, kruskal, kruskalCheck, forest, forestCheck, null);
+        }
 
-            List<Edge> edges = new ArrayList<>();
-            JsonArray eArr = gObj.getAsJsonArray("edges");
-            for (JsonElement ee : eArr) {
-                JsonObject eObj = ee.getAsJsonObject();
-                String u = String.valueOf(eObj.get("u").getAsInt());
-                String v = String.valueOf(eObj.get("v").getAsInt());
-                double w = eObj.get("w").getAsDouble();
-                edges.add(new Edge(u, v, w));
-            }
+        Solved(String name, int vertices, EuclideanMST.Result euclidean) {
+            this(name, vertices, 0, null, null, null, null, null, null, euclidean);
+        }
 
-            Graph graph = new Graph(vertices, edges);
-            PrimMST.Result primRes = PrimMST.compute(graph);
-            KruskalMST.Result krRes = KruskalMST.compute(graph);
-
-            boolean primValid = primRes.mstEdges.size() == Math.max(0, graph.V() - 1)
-                    && !new Graph(graph.getVertices(), primRes.mstEdges).hasCycle();
-            boolean krValid = krRes.mstEdges.size() == Math.max(0, graph.V() - 1)
-                    && !new Graph(graph.getVertices(), krRes.mstEdges).hasCycle();
-
-            JsonObject datasetOut = new JsonObject();
-            datasetOut.addProperty("id", name);
-            datasetOut.addProperty("V", graph.V());
-            datasetOut.addProperty("E", graph.E());
-
-            JsonObject primObj = new JsonObject();
-            primObj.add("mst_edges", edgesToJson(primRes.mstEdges));
-            primObj.addProperty("total_cost", primRes.totalCost);
-            primObj.add("ops", mapLongToJson(primRes.ops));
-            primObj.addProperty("time_ms", String.format(Locale.ROOT, "%.3fms", primRes.timeMs));
-            primObj.addProperty("valid", primValid);
-
-            JsonObject krObj = new JsonObject();
-            krObj.add("mst_edges", edgesToJson(krRes.mstEdges));
-            krObj.addProperty("total_cost", krRes.totalCost);
-            krObj.add("ops", mapLongToJson(krRes.ops));
-            krObj.addProperty("time_ms", String.format(Locale.ROOT, "%.3fms", krRes.timeMs));
-            krObj.addProperty("valid", krValid);
-
-            datasetOut.add("prim", primObj);
-            datasetOut.add("kruskal", krObj);
-            outDatasets.add(datasetOut);
-
-            csvRows.add(new String[]{
-                    name,
-                    String.valueOf(graph.V()),
-                    String.valueOf(graph.E()),
-                    String.valueOf(primRes.totalCost),
-                    String.valueOf(krRes.totalCost),
-                    String.format(Locale.ROOT, "%.3fms", primRes.timeMs),
-                    String.format(Locale.ROOT, "%.3fms", krRes.timeMs),
-                    GSON.toJson(primRes.ops),
-                    GSON.toJson(krRes.ops)
-            });
+        private Solved(String name, int vertices, int edges, PrimMST.Result prim, MstVerifier.Result primCheck,
+                       KruskalMST.Result kruskal, MstVerifier.Result kruskalCheck,
+                       SpanningForest.Result forest, MstVerifier.Result forestCheck, EuclideanMST.Result euclidean) {
+            this(name, vertices, edges, prim, primCheck, kruskal, kruskalCheck, forest, forestCheck, euclidean, false, 0.0);
+        }
 
-            System.out.printf("✅ %s: V=%d E=%d Prim=%.2f Kruskal=%.2f%n",
-                    name, graph.V(), graph.E(), primRes.totalCost, krRes.totalCost);
+        private Solved(String name, int vertices, int edges, PrimMST.Result prim, MstVerifier.Result primCheck,
+                       KruskalMST.Result kruskal, MstVerifier.Result kruskalCheck,
+                       SpanningForest.Result forest, MstVerifier.Result forestCheck, EuclideanMST.Result euclidean,
+                       boolean cached, double lookupMs) {
+            this.name = name;
+            this.vertices = vertices;
+            this.edges = edges;
+            this.prim = prim;
+            this.primCheck = primCheck;
+            this.kruskal = kruskal;
+            this.kruskalCheck = kruskalCheck;
+            this.forest = forest;
+            this.forestCheck = forestCheck;
+            this.euclidean = euclidean;
+            this.cached = cached;
+            this.lookupMs = lookupMs;
         }
 
-        JsonObject outRoot = new JsonObject();
-        outRoot.add("datasets", outDatasets);
-        try (Writer w = new FileWriter(outputPath)) {
-            GSON.toJson(outRoot, w);
+        Solved withName(String name) {
+            return new Solved(name, vertices, edges, prim, primCheck, kruskal, kruskalCheck, forest, forestCheck, euclidean,
+                    cached, lookupMs);
         }
 
-        try (PrintWriter pw = new PrintWriter(new FileWriter(summaryCsv))) {
-            for (String[] row : csvRows) {
-                pw.println(String.join(",", escapeCsvRow(row)));
-            }
+        Solved fromCache(double lookupMs) {
+            return new Solved(name, vertices, edges, prim, primCheck, kruskal, kruskalCheck, forest, forestCheck, euclidean,
+                    true, lookupMs);
         }
+    }
+
+    static Solved solve(GraphReader.Entry entry, ResultCache cache) {
+        return solve(entry, cache, false);
+    }
+
+    static Solved solve(GraphReader.Entry entry, ResultCache cache, boolean forest) {
+        // Cache keys cover vertices and edges only, so point entries are never cached.
+        if (cache == null || entry.points != null) return solve(entry, forest);
+        long t0 = System.nanoTime();
+        String key = ResultCache.key(entry.graph) + (forest ? "-forest" : "");
+        Solved cached = cache.get(key, entry.name);
+        if (cached != null) return cached.fromCache((System.nanoTime() - t0) / 1_000_000.0);
+        Solved solved = solve(entry, forest);
+        cache.put(key, solved);
+        return solved;
+    }
 
-        System.out.println("Output JSON saved to: " + outputPath);
-        System.out.println("Summary CSV saved to: " + summaryCsv);
+    static Solved solve(GraphReader.Entry entry) {
+        return solve(entry, false);
     }
 
-    private static JsonArray edgesToJson(List<Edge> edges) {
-        JsonArray arr = new JsonArray();
-        for (Edge e : edges) {
-            JsonArray t = new JsonArray();
-            t.add(e.getU());
-            t.add(e.getV());
-            t.add(e.getWeight());
-            arr.add(t);
+    static Solved solve(GraphReader.Entry entry, boolean forest) {
+        Graph graph = entry.graph;
+        if (entry.points != null) {
+            CsrGraph csr = graph.csr();
+            EuclideanMST.Result res = EuclideanMST.compute(entry.points, csr::label);
+            Metrics.global().recordRun("euclidean", res.ops, res.timeMs);
+            return new Solved(entry.name, graph.V(), res);
         }
-        return arr;
+        // Same trees and op counts as PrimMST.compute / KruskalMST.compute, without per-graph allocation churn.
+        PrimMST.Result primRes = BatchSolver.prim(graph);
+        KruskalMST.Result krRes = BatchSolver.kruskal(graph);
+
+        MstVerifier.Result primCheck = MstVerifier.verify(graph, primRes.mstEdges);
+        MstVerifier.Result krCheck = MstVerifier.verify(graph, krRes.mstEdges);
+        Metrics metrics = Metrics.global();
+        metrics.recordRun("prim", primRes.ops, primRes.timeMs);
+        metrics.recordRun("kruskal", krRes.ops, krRes.timeMs);
+        metrics.histogram("verify").recordNanos((long) ((primCheck.timeMs() + krCheck.timeMs()) * 1_000_000));
+        if (!forest) return new Solved(entry.name, graph.V(), graph.E(), primRes, primCheck, krRes, krCheck);
+
+        SpanningForest.Result forestRes = SpanningForest.compute(graph);
+        MstVerifier.Result forestCheck = MstVerifier.verify(graph, forestRes.mstEdges);
+        metrics.recordRun("forest", forestRes.ops, forestRes.timeMs);
+        return new Solved(entry.name, graph.V(), graph.E(), primRes, primCheck, krRes, krCheck, forestRes, forestCheck);
     }
 
-    private static JsonObject mapLongToJson(Map<String, Long> map) {
-        JsonObject o = new JsonObject();
-        for (Map.Entry<String, Long> en : map.entrySet()) o.addProperty(en.getKey(), en.getValue());
-        return o;
+    static void write(ResultWriter out, Solved s) throws IOException {
+        writeBlock(out, s);
+        if (s.euclidean != null) {
+            System.out.printf("✅ %s: V=%d points Euclidean=%.2f%n", s.name, s.vertices, s.euclidean.totalCost);
+        } else {
+            System.out.printf("✅ %s: V=%d E=%d Prim=%.2f Kruskal=%.2f%n",
+                    s.name, s.vertices, s.edges, s.prim.totalCost, s.kruskal.totalCost);
+        }
     }
 
-    private static String[] escapeCsvRow(String[] row) {
-        String[] out = new String[row.length];
-        for (int i = 0; i < row.length; i++) {
-            String s = row[i];
-            if (s == null) s = "";
-            if (s.contains(",") || s.contains("\"") || s.contains("\n")) {
-                s = "\"" + s.replace("\"", "\"\"") + "\"";
-            }
-            out[i] = s;
+    // The dataset block and summary row without the console line; MstServer streams these per request.
+    static void writeBlock(ResultWriter out, Solved s) throws IOException {
+        if (s.euclidean != null) {
+            writeEuclidean(out, s);
+            return;
         }
-        return out;
+        out.beginDataset(s.name, s.vertices, s.edges);
+        if (s.cached) out.cached(s.lookupMs);
+        // In spanning-forest mode a result is valid when it spans every component, not the whole vertex set.
+        boolean forest = s.forest != null;
+        out.algorithm("prim", s.prim.mstEdges, s.prim.totalCost, s.prim.ops, s.prim.timeMs,
+                forest ? s.primCheck.validForest() : s.primCheck.valid(), s.primCheck);
+        out.algorithm("kruskal", s.kruskal.mstEdges, s.kruskal.totalCost, s.kruskal.ops, s.kruskal.timeMs,
+                forest ? s.kruskalCheck.validForest() : s.kruskalCheck.valid(), s.kruskalCheck);
+        if (forest) out.forest(s.forest, s.forestCheck);
+        out.endDataset();
+        out.summary(s.name, s.vertices, s.edges, s.prim, s.kruskal, s.cached);
+    }
+
+    // Point entries get a single "euclidean" block; valid means the tree spans every point.
+    private static void writeEuclidean(ResultWriter out, Solved s) throws IOException {
+        EuclideanMST.Result r = s.euclidean;
+        out.beginDataset(s.name, s.vertices, s.edges);
+        out.algorithm("euclidean", r.mstEdges, r.totalCost, r.ops, r.timeMs, r.mstEdges.size() == Math.max(0, s.vertices - 1));
+        out.endDataset();
+        out.summary(s.name, s.vertices, s.edges, r);
+    }
+
+    static Path outputPath(Path inputPath, String suffix) {
+        String fileName = inputPath.getFileName().toString();
+        String baseName = fileName.replace("input", "output").replace(".json", "");
+        return inputPath.toAbsolutePath().getParent().resolve(baseName + suffix);
     }
 }
@@ -0,0 +1,276 @@
+package mst;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Kruskal across worker processes. A graph in a .mstg file, or a RawEdgeFile of any size, is cut into contiguous
+ * edge shards; each shard goes to a ShardWorker JVM, which returns the minimum spanning forest of its edges (at most
+ * V-1 of them). Any two finished forests are merged on the same workers straight away, ahead of shards not yet
+ * started, until one is left. Only forests cross the pipes, and every step keeps the (weight, global edge index)
+ * order, so the tree equals KruskalMST.computeIndexed's whatever order the merges happen in.
+ * Memory: at most one task per worker is in flight and each carries at most two forests, so the coordinator holds
+ * no more than about (2 * workers + 1) * (V - 1) edges, however large E is. V itself must fit in its heap.
+ */
+public class ShardCoordinator implements Closeable {
+    public static final int DEFAULT_SHARD_EDGES = 1 << 20;
+
+    private final int shardEdges;
+    private final List<Worker> workers = new ArrayList<>();
+    private final BlockingQueue<Worker> idle;
+    private final ExecutorService dispatch;
+    private final AtomicInteger live = new AtomicInteger();
+
+    private static final class Worker {
+        final int id;
+        final Process process;
+        final DataOutputStream out;
+        final DataInputStream in;
+        // Set when the last exchange ended in a FAILED status, after which the pipe is still in step.
+        boolean failedCleanly;
+
+        Worker(int id, Process process) {
+            this.id = id;
+            this.process = process;
+            this.out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream(), 1 << 16));
+            this.in = new DataInputStream(new BufferedInputStream(process.getInputStream(), 1 << 16));
+        }
+
+        ShardWorker.Forest await() throws IOException {
+            out.flush();
+            int status;
+            try {
+                status = in.readInt();
+                if (status == ShardWorker.OK) return ShardWorker.Forest.read(in);
+                if (status != ShardWorker.FAILED) throw new IOException("Shard worker " + id + " sent status " + status);
+                String error = in.readUTF();
+                failedCleanly = true;
+                throw new IOException("Shard worker " + id + " failed: " + error);
+            } catch (EOFException e) {
+                throw new IOException("Shard worker " + id + " exited (status " + exitStatus() + ")");
+            }
+        }
+
+        private String exitStatus() {
+            try {
+                return process.waitFor(1, TimeUnit.SECONDS) ? String.valueOf(process.exitValue()) : "running";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "unknown";
+            }
+        }
+    }
+
+    private interface Request {
+        void send(DataOutputStream out) throws IOException;
+    }
+
+    public ShardCoordinator(int workerCount, int shardEdges, String workerHeap) throws IOException {
+        if (workerCount < 1) throw new IllegalArgumentException("workerCount must be positive: " + workerCount);
+        if (shardEdges < 1) throw new IllegalArgumentException("shardEdges must be positive: " + shardEdges);
+        this.shardEdges = shardEdges;
+        this.idle = new ArrayBlockingQueue<>(workerCount);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                Process p = new ProcessBuilder(java, "-Xmx" + workerHeap, "-cp", System.getProperty("java.class.path"),
+                        ShardWorker.class.getName())
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                Worker w = new Worker(i, p);
+                workers.add(w);
+                idle.add(w);
+                live.incrementAndGet();
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        this.dispatch = Executors.newFixedThreadPool(workerCount, DatasetPipeline.named("mst-shard"));
+    }
+
+    public int workerCount() { return workers.size(); }
+
+    // Solves graph #ordinal (0-based) of the file; the caller closes the returned tree.
+    public OffHeapMST.Result compute(Path mstg, int ordinal, int vertexCount, int edgeCount) throws IOException {
+        if (ordinal < 0) throw new IllegalArgumentException("ordinal must be non-negative: " + ordinal);
+        return run(mstg, ordinal, vertexCount, edgeCount);
+    }
+
+    // Solves a RawEdgeFile; shards address it by long edge offsets, so it is not limited to one mappable record.
+    public OffHeapMST.Result compute(Path edgeFile) throws IOException {
+        int vertexCount;
+        long edgeCount;
+        try (RawEdgeFile.Cursor edges = RawEdgeFile.open(edgeFile)) {
+            vertexCount = edges.vertexCount();
+            edgeCount = edges.edgeCount();
+        }
+        return run(edgeFile, ShardWorker.RAW, vertexCount, edgeCount);
+    }
+
+    private OffHeapMST.Result run(Path input, int ordinal, int vertexCount, long edgeCount) throws IOException {
+        long t0 = System.nanoTime();
+        String path = input.toAbsolutePath().toString();
+        long shards = Math.max(1, (edgeCount + shardEdges - 1) / shardEdges);
+        CompletionService<ShardWorker.Forest> done = new ExecutorCompletionService<>(dispatch);
+        Set<Future<ShardWorker.Forest>> running = new HashSet<>();
+        long nextShard = 0, shipped = 0, considered = 0, findCalls = 0, unions = 0, merges = 0;
+        ShardWorker.Forest held = null;
+        try {
+            while (true) {
+                // Merges are queued the moment a pair exists; new shards only take the worker slots left over.
+                while (running.size() < workers.size() && nextShard < shards) {
+                    long lo = nextShard * shardEdges, hi = Math.min(edgeCount, lo + shardEdges);
+                    nextShard++;
+                    running.add(done.submit(task(out -> {
+                        out.writeInt(ShardWorker.SOLVE);
+                        out.writeUTF(path);
+                        out.writeInt(ordinal);
+                        out.writeLong(lo);
+                        out.writeLong(hi);
+                    })));
+                }
+                if (running.isEmpty()) break;
+                Future<ShardWorker.Forest> next = done.take();
+                running.remove(next);
+                ShardWorker.Forest f = next.get();
+                shipped += f.size;
+                considered += f.considered;
+                findCalls += f.findCalls;
+                unions += f.unions;
+                if (held == null) {
+                    held = f;
+                    continue;
+                }
+                ShardWorker.Forest a = held, b = f;
+                held = null;
+                shipped += a.size + b.size;
+                merges++;
+                running.add(done.submit(task(out -> {
+                    out.writeInt(ShardWorker.MERGE);
+                    out.writeInt(vertexCount);
+                    out.writeInt(2);
+                    a.write(out);
+                    b.write(out);
+                })));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for shard workers");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        } finally {
+            for (Future<ShardWorker.Forest> f : running) f.cancel(false);
+        }
+
+        OffHeapEdgeStore tree = OffHeapEdgeStore.direct(vertexCount);
+        double totalCost = 0.0;
+        for (int i = 0; i < held.size; i++) {
+            tree.add(held.u[i], held.v[i], held.w[i]);
+            totalCost += held.w[i];
+        }
+        long t1 = System.nanoTime();
+        // Wall time of the whole distributed run, pipes and worker start-up included; not a union-find breakdown.
+        Metrics.global().recordPhase(Metrics.Phase.SHARD, t0, t1);
+        Map<String, Long> ops = new LinkedHashMap<>();
+        ops.put("shards", shards);
+        ops.put("workers", (long) workers.size());
+        ops.put("merges", merges);
+        ops.put("edges_shipped", shipped);
+        ops.put("edge_considered", considered);
+        ops.put("find_calls", findCalls);
+        ops.put("unions", unions);
+        return new OffHeapMST.Result(tree, totalCost, ops, (t1 - t0) / 1_000_000.0);
+    }
+
+    /*
+     * Runs the request on the next idle worker. Only a successful reply or a clean FAILED one leaves the pipe in
+     * step; after anything else, including a RuntimeException or Error while reading the reply, the worker is killed
+     * and never handed out again.
+     */
+    private Callable<ShardWorker.Forest> task(Request request) {
+        return () -> {
+            Worker w;
+            while ((w = idle.poll(1, TimeUnit.SECONDS)) == null) {
+                if (live.get() == 0) throw new IOException("No shard workers left");
+            }
+            boolean inStep = false;
+            w.failedCleanly = false;
+            try {
+                request.send(w.out);
+                ShardWorker.Forest f = w.await();
+                inStep = true;
+                return f;
+            } finally {
+                if (inStep || w.failedCleanly) {
+                    idle.add(w);
+                } else {
+                    live.decrementAndGet();
+                    w.process.destroyForcibly();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        if (dispatch != null) dispatch.shutdownNow();
+        for (Worker w : workers) {
+            try {
+                w.out.writeInt(ShardWorker.EXIT);
+                w.out.close();
+            } catch (IOException e) {
+                // Already gone; destroyed below if it has not exited.
+            }
+        }
+        for (Worker w : workers) {
+            try {
+                if (!w.process.waitFor(5, TimeUnit.SECONDS)) w.process.destroyForcibly();
+            } catch (InterruptedException e) {
+                w.process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ShardCoordinator <graphs.mstg | edges.mste> [--workers=N] [--shard-edges=N] [--worker-heap=256m]");
+            System.exit(2);
+        }
+        int workerCount = Math.max(2, Runtime.getRuntime().availableProcessors());
+        int shardEdges = DEFAULT_SHARD_EDGES;
+        String heap = "256m";
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--workers=")) workerCount = Integer.parseInt(args[i].substring("--workers=".length()));
+            else if (args[i].startsWith("--shard-edges=")) shardEdges = Integer.parseInt(args[i].substring("--shard-edges=".length()));
+            else if (args[i].startsWith("--worker-heap=")) heap = args[i].substring("--worker-heap=".length());
+        }
+        Path input = Paths.get(args[0]);
+        if (RawEdgeFile.isRawEdgeFile(input)) {
+            try (ShardCoordinator coordinator = new ShardCoordinator(workerCount, shardEdges, heap)) {
+                OffHeapMST.Result r = coordinator.compute(input);
+                System.out.printf("%s: V=%d cost=%.2f tree=%d time=%s ops=%s%n", input.getFileName(), r.tree.vertexCount(),
+                        r.totalCost, r.tree.size(), ResultWriter.formatMs(r.timeMs), r.ops);
+                r.tree.close();
+            }
+            return;
+        }
+        try (ShardCoordinator coordinator = new ShardCoordinator(workerCount, shardEdges, heap);
+             BinaryGraphFile.Reader reader = BinaryGraphFile.open(input)) {
+            BinaryGraphFile.MappedGraph g;
+            for (int ordinal = 0; (g = reader.nextMapped()) != null; ordinal++) {
+                OffHeapMST.Result r = coordinator.compute(input, ordinal, g.vertexCount, g.edgeCount);
+                System.out.printf("%s: V=%d E=%d cost=%.2f tree=%d time=%s ops=%s%n", g.name, g.vertexCount,
+                        g.edgeCount, r.totalCost, r.tree.size(), ResultWriter.formatMs(r.timeMs), r.ops);
+                r.tree.close();
+            }
+        }
+    }
+}
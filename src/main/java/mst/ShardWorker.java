@@ -0,0 +1,236 @@
+package mst;
+
+import java.io.*;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.*;
+import java.util.*;
+
+/*
+ * Worker process for ShardCoordinator. It reads requests from stdin and answers on stdout; diagnostics go to
+ * stderr. A SOLVE request names an edge range of a graph in a .mstg file, which the worker maps itself, or a long
+ * edge range of a RawEdgeFile, which it streams; either way shard edges never cross the pipe. A MERGE request carries
+ * forests from earlier steps. Both return the minimum spanning forest of their edges under the (weight, global edge
+ * index) order used by KruskalMST.computeIndexed. Every edge dropped here is the heaviest on some cycle under that
+ * order, so it cannot be in the final tree.
+ */
+public class ShardWorker {
+    static final int EXIT = 0;
+    static final int SOLVE = 1;
+    static final int MERGE = 2;
+    static final int OK = 0;
+    static final int FAILED = 1;
+    // SOLVE ordinal naming a RawEdgeFile instead of a graph in a .mstg file.
+    static final int RAW = -1;
+
+    // Partial forest with global edge indices; the edges are kept in Kruskal acceptance, i.e. (weight, index), order.
+    static final class Forest {
+        int size;
+        int[] u, v;
+        long[] idx;
+        double[] w;
+        long considered, findCalls, unions;
+
+        Forest(int capacity) {
+            u = new int[capacity];
+            v = new int[capacity];
+            idx = new long[capacity];
+            w = new double[capacity];
+        }
+
+        void add(int eu, int ev, double ew, long eidx) {
+            if (size == u.length) {
+                int cap = Math.max(16, size * 2);
+                u = Arrays.copyOf(u, cap);
+                v = Arrays.copyOf(v, cap);
+                idx = Arrays.copyOf(idx, cap);
+                w = Arrays.copyOf(w, cap);
+            }
+            u[size] = eu;
+            v[size] = ev;
+            w[size] = ew;
+            idx[size] = eidx;
+            size++;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeInt(u[i]);
+                out.writeInt(v[i]);
+                out.writeDouble(w[i]);
+                out.writeLong(idx[i]);
+            }
+            out.writeLong(considered);
+            out.writeLong(findCalls);
+            out.writeLong(unions);
+        }
+
+        static Forest read(DataInputStream in) throws IOException {
+            int n = in.readInt();
+            Forest f = new Forest(n);
+            for (int i = 0; i < n; i++) f.add(in.readInt(), in.readInt(), in.readDouble(), in.readLong());
+            f.considered = in.readLong();
+            f.findCalls = in.readLong();
+            f.unions = in.readLong();
+            return f;
+        }
+    }
+
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private Path openPath;
+    private BinaryGraphFile.Reader reader;
+    private int openOrdinal = -1;
+    private BinaryGraphFile.MappedGraph graph;
+
+    ShardWorker(InputStream in, OutputStream out) {
+        this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+    }
+
+    void serve() throws IOException {
+        try {
+            while (true) {
+                int op;
+                try {
+                    op = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                if (op == EXIT) return;
+                Forest result;
+                try {
+                    result = op == SOLVE ? solve() : op == MERGE ? merge() : null;
+                    if (result == null) throw new IOException("Unknown request " + op);
+                } catch (IOException | RuntimeException e) {
+                    out.writeInt(FAILED);
+                    out.writeUTF(String.valueOf(e));
+                    out.flush();
+                    continue;
+                }
+                out.writeInt(OK);
+                result.write(out);
+                out.flush();
+            }
+        } finally {
+            if (reader != null) reader.close();
+        }
+    }
+
+    private Forest solve() throws IOException {
+        Path path = Paths.get(in.readUTF());
+        int ordinal = in.readInt();
+        long from = in.readLong();
+        long to = in.readLong();
+        if (from < 0 || from > to || to - from > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bad edge range " + from + ".." + to);
+        }
+        int count = (int) (to - from);
+        int[] us = new int[count];
+        int[] vs = new int[count];
+        double[] ws = new double[count];
+        int vertexCount;
+        if (ordinal == RAW) {
+            try (RawEdgeFile.Cursor edges = RawEdgeFile.open(path, from, to)) {
+                vertexCount = edges.vertexCount();
+                for (int i = 0; i < count; i++) {
+                    if (!edges.advance()) throw new IllegalArgumentException("Edge range " + from + ".." + to + " outside 0.." + edges.edgeCount());
+                    us[i] = edges.u();
+                    vs[i] = edges.v();
+                    ws[i] = edges.weight();
+                }
+            }
+        } else {
+            BinaryGraphFile.MappedGraph g = graph(path, ordinal);
+            if (to > g.edgeCount) throw new IllegalArgumentException("Edge range " + from + ".." + to + " outside 0.." + g.edgeCount);
+            vertexCount = g.vertexCount;
+            IntBuffer ub = g.edgeU();
+            IntBuffer vb = g.edgeV();
+            DoubleBuffer wb = g.weights();
+            ub.position((int) from);
+            vb.position((int) from);
+            wb.position((int) from);
+            ub.get(us);
+            vb.get(vs);
+            wb.get(ws);
+        }
+        return kruskal(vertexCount, us, vs, ws, from, count);
+    }
+
+    // Forests arrive sorted by (weight, index), so a k-way merge feeds the union-find in order without re-sorting.
+    private Forest merge() throws IOException {
+        int vertexCount = in.readInt();
+        int parts = in.readInt();
+        Forest[] forests = new Forest[parts];
+        int[] pos = new int[parts];
+        int total = 0;
+        for (int p = 0; p < parts; p++) {
+            forests[p] = Forest.read(in);
+            total += forests[p].size;
+        }
+        IntUnionFind uf = new IntUnionFind(vertexCount);
+        int target = Math.max(0, vertexCount - 1);
+        Forest f = new Forest(Math.min(total, target));
+        while (f.size < target) {
+            int best = -1;
+            for (int p = 0; p < parts; p++) {
+                if (pos[p] == forests[p].size) continue;
+                if (best < 0 || before(forests[p], pos[p], forests[best], pos[best])) best = p;
+            }
+            if (best < 0) break;
+            Forest src = forests[best];
+            int i = pos[best]++;
+            f.considered++;
+            if (uf.union(src.u[i], src.v[i])) f.add(src.u[i], src.v[i], src.w[i], src.idx[i]);
+        }
+        f.findCalls = uf.getFindCalls();
+        f.unions = uf.getUnions();
+        return f;
+    }
+
+    private static boolean before(Forest a, int i, Forest b, int j) {
+        int c = Double.compare(a.w[i], b.w[j]);
+        return c != 0 ? c < 0 : a.idx[i] < b.idx[j];
+    }
+
+    // Kruskal over one shard; local position e is global edge base + e, so EdgeSort's index tie-break follows it.
+    static Forest kruskal(int vertexCount, int[] us, int[] vs, double[] ws, long base, int count) {
+        int[] order = EdgeSort.identity(count);
+        EdgeSort.sortAdaptive(order, 0, count, ws);
+        IntUnionFind uf = new IntUnionFind(vertexCount);
+        int target = Math.max(0, vertexCount - 1);
+        Forest f = new Forest(Math.min(count, target));
+        for (int e : order) {
+            f.considered++;
+            if (uf.union(us[e], vs[e])) f.add(us[e], vs[e], ws[e], base + e);
+            if (f.size == target) break;
+        }
+        f.findCalls = uf.getFindCalls();
+        f.unions = uf.getUnions();
+        return f;
+    }
+
+    private BinaryGraphFile.MappedGraph graph(Path path, int ordinal) throws IOException {
+        if (reader == null || !path.equals(openPath) || ordinal < openOrdinal) {
+            if (reader != null) reader.close();
+            reader = BinaryGraphFile.open(path);
+            openPath = path;
+            openOrdinal = -1;
+            graph = null;
+        }
+        while (openOrdinal < ordinal) {
+            graph = reader.nextMapped();
+            openOrdinal++;
+            if (graph == null) throw new IllegalArgumentException("No graph #" + ordinal + " in " + path);
+        }
+        return graph;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Anything printed to System.out would corrupt the protocol, so stdout is taken over before serving.
+        PrintStream protocol = System.out;
+        System.setOut(System.err);
+        new ShardWorker(System.in, protocol).serve();
+    }
+}
@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+// Not thread-safe: each engine run owns its instance and publishes the counters to Metrics once it is done.
 public class UnionFind {
     private final Map<String, String> parent;
     private final Map<String, Integer> rank;
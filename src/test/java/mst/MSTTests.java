@@ -1,12 +1,24 @@
 package mst;
 
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import com.google.gson.*;
 
 public class MSTTests {
@@ -110,4 +122,1045 @@ public class MSTTests {
         assertTrue(elapsed < 2000, "Prim algorithm should finish under 2 seconds for n=500");
         assertEquals(g.V() - 1, primRes.mstEdges.size());
     }
+
+    @Test
+    @DisplayName("CSR backend mirrors Graph adjacency and connectivity")
+    void testCsrGraphView() {
+        CsrGraph csr = smallGraph.csr();
+        assertEquals(smallGraph.V(), csr.vertexCount());
+        assertEquals(smallGraph.E(), csr.edgeCount());
+        for (String v : smallGraph.getVertices()) {
+            int idx = csr.indexOf(v);
+            assertEquals(smallGraph.adj(v).size(), csr.degree(idx));
+            for (int i = csr.begin(idx); i < csr.end(idx); i++) {
+                assertEquals(smallGraph.adj(v).get(i - csr.begin(idx)), csr.toEdge(csr.edgeAt(i)));
+            }
+        }
+        assertTrue(smallGraph.isConnected());
+
+        Graph fromCsr = new Graph(new CsrGraph(new String[]{"a", "b", "c"},
+                new int[]{0}, new int[]{1}, new double[]{2.5}));
+        assertFalse(fromCsr.isConnected());
+        assertEquals(Arrays.asList("a", "b", "c"), fromCsr.getVertices());
+        assertEquals(new Edge("a", "b", 2.5), fromCsr.adj("b").get(0));
+        assertTrue(fromCsr.adj("zzz").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Indexed Kruskal matches classic Kruskal")
+    void testIndexedKruskal() {
+        Random rand = new Random(7);
+        List<String> vertices = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        int n = 300;
+        for (int i = 0; i < n; i++) vertices.add(String.valueOf(i));
+        for (int i = 1; i < n; i++) edges.add(new Edge(String.valueOf(rand.nextInt(i)), String.valueOf(i), rand.nextInt(50) + 1));
+        for (int i = 0; i < n * 5; i++) {
+            edges.add(new Edge(String.valueOf(rand.nextInt(n)), String.valueOf(rand.nextInt(n)), rand.nextInt(50) + 1));
+        }
+        Graph g = new Graph(vertices, edges);
+
+        KruskalMST.Result classic = KruskalMST.compute(g);
+        KruskalMST.Result indexed = KruskalMST.computeIndexed(g);
+        assertEquals(classic.mstEdges, indexed.mstEdges, "Ties are broken in input order by both variants");
+        assertEquals(classic.totalCost, indexed.totalCost, 1e-9);
+        assertEquals(classic.ops.get("unions"), indexed.ops.get("unions"));
+        assertTrue(indexed.ops.get("find_calls") < classic.ops.get("find_calls"));
+
+        IntUnionFind uf = new IntUnionFind(4);
+        assertTrue(uf.union(0, 1));
+        assertTrue(uf.union(2, 3));
+        assertFalse(uf.union(1, 0));
+        assertTrue(uf.union(1, 3));
+        assertTrue(uf.connected(0, 2));
+        assertEquals(1, uf.components());
+    }
+
+    @Test
+    @DisplayName("Eager Prim on a d-ary heap matches lazy Prim")
+    void testEagerPrim() {
+        Random rand = new Random(11);
+        List<String> vertices = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        int n = 200;
+        for (int i = 0; i < n; i++) vertices.add(String.valueOf(i));
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (rand.nextInt(3) == 0) edges.add(new Edge(String.valueOf(i), String.valueOf(j), rand.nextDouble() * 100));
+            }
+        }
+        Graph g = new Graph(vertices, edges);
+        PrimMST.Result lazy = PrimMST.compute(g);
+
+        for (int d : new int[]{2, 4, 8}) {
+            PrimMST.Result eager = PrimMST.computeEager(g, d);
+            assertEquals(lazy.totalCost, eager.totalCost, 1e-6, "arity " + d);
+            assertEquals(g.V() - 1, eager.mstEdges.size());
+            assertTrue(eager.ops.get("heap_pushes") < n);
+            assertTrue(eager.ops.containsKey("decrease_keys"));
+        }
+        assertFalse(new Graph(vertices, PrimMST.computeEager(g, 8).mstEdges).hasCycle());
+    }
+
+    @Test
+    @DisplayName("Parallel Boruvka agrees with Kruskal for any pool size")
+    void testBoruvka() {
+        Random rand = new Random(3);
+        List<String> vertices = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        int n = 3000;
+        for (int i = 0; i < n; i++) vertices.add(String.valueOf(i));
+        for (int i = 0; i < n * 8; i++) {
+            edges.add(new Edge(String.valueOf(rand.nextInt(n)), String.valueOf(rand.nextInt(n)), rand.nextInt(100)));
+        }
+        Graph g = new Graph(vertices, edges);
+        KruskalMST.Result kr = KruskalMST.computeIndexed(g);
+
+        for (int threads : new int[]{1, 4}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                BoruvkaMST.Result res = BoruvkaMST.compute(g, pool);
+                assertEquals(kr.totalCost, res.totalCost, 1e-9);
+                assertEquals(kr.mstEdges.size(), res.mstEdges.size());
+                assertEquals(n - res.mstEdges.size(), res.ops.get("components"));
+                assertTrue(res.ops.get("rounds") <= 32 - Integer.numberOfLeadingZeros(n));
+                assertFalse(new Graph(vertices, res.mstEdges).hasCycle());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Filter-Kruskal and parallel edge sort")
+    void testFilterKruskal() {
+        Random rand = new Random(5);
+        List<String> vertices = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        int n = 2000;
+        for (int i = 0; i < n; i++) vertices.add(String.valueOf(i));
+        for (int i = 1; i < n; i++) edges.add(new Edge(String.valueOf(rand.nextInt(i)), String.valueOf(i), rand.nextInt(1000)));
+        for (int i = 0; i < 60_000; i++) {
+            edges.add(new Edge(String.valueOf(rand.nextInt(n)), String.valueOf(rand.nextInt(n)), rand.nextInt(1000)));
+        }
+        Graph g = new Graph(vertices, edges);
+
+        KruskalMST.Result indexed = KruskalMST.computeIndexed(g);
+        KruskalMST.Result filter = KruskalMST.computeFilter(g);
+        assertEquals(indexed.mstEdges, filter.mstEdges);
+        assertEquals(indexed.totalCost, filter.totalCost, 1e-9);
+        assertTrue(filter.ops.get("edges_sorted") < g.E());
+
+        double[] w = new double[100_000];
+        for (int i = 0; i < w.length; i++) w[i] = rand.nextInt(500);
+        int[] idx = EdgeSort.identity(w.length);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            EdgeSort.parallelSort(idx, 0, idx.length, w, pool);
+        } finally {
+            pool.shutdown();
+        }
+        for (int i = 1; i < idx.length; i++) assertTrue(EdgeSort.less(idx[i - 1], idx[i], w));
+    }
+
+    @Test
+    @DisplayName("Streaming reader decodes the same graphs as the DOM parser")
+    void testStreamingReader() throws IOException {
+        String inputPath = "data/assign_3_input_small.json";
+        JsonObject root = JsonParser.parseString(new String(Files.readAllBytes(Paths.get(inputPath)))).getAsJsonObject();
+        JsonArray graphs = root.getAsJsonArray("graphs");
+
+        try (GraphReader reader = GraphReader.open(Paths.get(inputPath))) {
+            for (JsonElement gElem : graphs) {
+                JsonObject gObj = gElem.getAsJsonObject();
+                GraphReader.Entry entry = reader.next();
+                assertNotNull(entry);
+                assertEquals("graph_" + gObj.get("id").getAsString(), entry.name);
+                assertEquals(gObj.getAsJsonArray("vertices").size(), entry.graph.V());
+                JsonArray eArr = gObj.getAsJsonArray("edges");
+                assertEquals(eArr.size(), entry.graph.E());
+                JsonObject last = eArr.get(eArr.size() - 1).getAsJsonObject();
+                assertEquals(new Edge(last.get("u").getAsString(), last.get("v").getAsString(), last.get("w").getAsDouble()),
+                        entry.graph.getEdges().get(eArr.size() - 1));
+            }
+            assertNull(reader.next());
+        }
+
+        String bare = "[{\"id\": 9, \"n\": 3, \"edges\": [{\"w\": 2, \"u\": 0, \"v\": 2}]}]";
+        try (GraphReader reader = new GraphReader(new StringReader(bare), "inline")) {
+            GraphReader.Entry entry = reader.next();
+            assertEquals("graph_9", entry.name);
+            assertEquals(Arrays.asList("0", "1", "2"), entry.graph.getVertices());
+            assertEquals(new Edge("0", "2", 2), entry.graph.getEdges().get(0));
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("Streaming result writer keeps the output schema")
+    void testResultWriter() throws IOException {
+        PrimMST.Result primRes = PrimMST.compute(smallGraph);
+        KruskalMST.Result krRes = KruskalMST.compute(smallGraph);
+        StringWriter json = new StringWriter();
+        StringWriter csv = new StringWriter();
+        try (ResultWriter out = new ResultWriter(json, csv, false)) {
+            out.beginDataset("graph_1", smallGraph.V(), smallGraph.E());
+            out.algorithm("prim", primRes.mstEdges, primRes.totalCost, primRes.ops, primRes.timeMs, true);
+            out.algorithm("kruskal", krRes.mstEdges, krRes.totalCost, krRes.ops, krRes.timeMs, true);
+            out.endDataset();
+            out.summary("graph_1", smallGraph.V(), smallGraph.E(), primRes, krRes);
+        }
+
+        JsonObject ds = JsonParser.parseString(json.toString()).getAsJsonObject()
+                .getAsJsonArray("datasets").get(0).getAsJsonObject();
+        assertEquals("graph_1", ds.get("id").getAsString());
+        assertEquals(4, ds.get("V").getAsInt());
+        JsonObject kr = ds.getAsJsonObject("kruskal");
+        assertEquals(krRes.totalCost, kr.get("total_cost").getAsDouble(), 1e-9);
+        assertEquals(3, kr.getAsJsonArray("mst_edges").size());
+        assertEquals("1", kr.getAsJsonArray("mst_edges").get(0).getAsJsonArray().get(0).getAsString());
+        assertEquals(krRes.ops.get("unions").longValue(), kr.getAsJsonObject("ops").get("unions").getAsLong());
+        assertTrue(kr.get("valid").getAsBoolean());
+        assertTrue(csv.toString().startsWith("name,V,E,prim_cost,kruskal_cost"));
+        assertTrue(csv.toString().contains("graph_1,4,4,"));
+    }
+
+    @Test
+    @DisplayName("Concurrent pipeline writes results in input order")
+    void testPipelineOrder(@TempDir Path dir) throws IOException {
+        Path small = dir.resolve("assign_3_input_small.json");
+        Path medium = dir.resolve("assign_3_input_medium.json");
+        Files.copy(Paths.get("data/assign_3_input_small.json"), small);
+        Files.copy(Paths.get("data/assign_3_input_medium.json"), medium);
+
+        try (DatasetPipeline pipeline = new DatasetPipeline(4, 2, false)) {
+            pipeline.process(Arrays.asList(small, medium), true);
+        }
+
+        for (Path input : Arrays.asList(small, medium)) {
+            JsonArray graphs = JsonParser.parseString(new String(Files.readAllBytes(input)))
+                    .getAsJsonObject().getAsJsonArray("graphs");
+            JsonArray datasets = JsonParser.parseString(new String(Files.readAllBytes(Runner.outputPath(input, ".json"))))
+                    .getAsJsonObject().getAsJsonArray("datasets");
+            assertEquals(graphs.size(), datasets.size());
+            for (int i = 0; i < graphs.size(); i++) {
+                assertEquals("graph_" + graphs.get(i).getAsJsonObject().get("id").getAsString(),
+                        datasets.get(i).getAsJsonObject().get("id").getAsString());
+            }
+            assertEquals(graphs.size() + 1, Files.readAllLines(Runner.outputPath(input, "_summary.csv")).stream()
+                    .filter(line -> line.startsWith("graph_") || line.startsWith("name,")).count());
+        }
+    }
+
+    @Test
+    @DisplayName("Generator families are reproducible and readable by GraphReader")
+    void testGraphGenerator() throws IOException {
+        for (GraphGenerator.Family family : GraphGenerator.Family.values()) {
+            GraphGenerator gen = new GraphGenerator(family, 400, 1600, 99);
+            StringWriter first = new StringWriter();
+            StringWriter second = new StringWriter();
+            gen.write(first, 2, false);
+            gen.write(second, 2, false);
+            assertEquals(first.toString(), second.toString(), family + " should be seeded");
+
+            try (GraphReader reader = new GraphReader(new StringReader(first.toString()), family.name())) {
+                GraphReader.Entry entry = reader.next();
+                assertEquals(400, entry.graph.V());
+                int expectedComponents = family == GraphGenerator.Family.FOREST ? GraphGenerator.DEFAULT_FOREST_COMPONENTS : 1;
+                assertEquals(expectedComponents, entry.graph.csr().componentCount(), family.name());
+                if (family == GraphGenerator.Family.SPARSE || family == GraphGenerator.Family.POWERLAW
+                        || family == GraphGenerator.Family.FOREST) {
+                    assertEquals(1600, entry.graph.E());
+                }
+                assertNotNull(reader.next());
+                assertNull(reader.next());
+            }
+        }
+        StringWriter five = new StringWriter();
+        new GraphGenerator(GraphGenerator.Family.FOREST, 400, 1600, 99).components(5).write(five, 1, false);
+        try (GraphReader reader = new GraphReader(new StringReader(five.toString()), "forest")) {
+            assertEquals(5, reader.next().graph.csr().componentCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Binary graph container round-trips the JSON inputs")
+    void testBinaryGraphFile(@TempDir Path dir) throws IOException {
+        Path json = dir.resolve("assign_3_input_medium.json");
+        Files.copy(Paths.get("data/assign_3_input_medium.json"), json);
+
+        try (GraphSource bin = GraphSource.open(json, true);
+             GraphReader text = GraphReader.open(json)) {
+            assertTrue(Files.exists(BinaryGraphFile.siblingOf(json)));
+            GraphReader.Entry expected;
+            while ((expected = text.next()) != null) {
+                GraphReader.Entry actual = bin.next();
+                assertEquals(expected.name, actual.name);
+                assertEquals(expected.graph.getVertices(), actual.graph.getVertices());
+                assertEquals(expected.graph.getEdges(), actual.graph.getEdges());
+            }
+            assertNull(bin.next());
+        }
+
+        try (BinaryGraphFile.Reader reader = BinaryGraphFile.open(BinaryGraphFile.siblingOf(json))) {
+            BinaryGraphFile.MappedGraph g = reader.nextMapped();
+            assertEquals(g.edgeCount, g.weights().remaining());
+            assertEquals(g.vertexCount, g.vertexIds().remaining());
+        }
+    }
+
+    @Test
+    @DisplayName("Dynamic MST tracks a full recomputation under random updates")
+    void testDynamicMST() {
+        Random rand = new Random(21);
+        int n = 120;
+        List<String> vertices = new ArrayList<>();
+        for (int i = 0; i < n; i++) vertices.add(String.valueOf(i));
+        Map<String, Edge> model = new LinkedHashMap<>();
+        for (int i = 0; i < 400; i++) {
+            int u = rand.nextInt(n), v = rand.nextInt(n);
+            if (u == v) continue;
+            String key = Math.min(u, v) + "-" + Math.max(u, v);
+            model.putIfAbsent(key, new Edge(String.valueOf(Math.min(u, v)), String.valueOf(Math.max(u, v)), rand.nextInt(100)));
+        }
+        DynamicMST dyn = new DynamicMST(new Graph(vertices, new ArrayList<>(model.values())));
+
+        for (int round = 0; round < 50; round++) {
+            List<DynamicMST.Update> batch = new ArrayList<>();
+            for (int k = 0; k < 5; k++) {
+                List<String> keys = new ArrayList<>(model.keySet());
+                int op = rand.nextInt(3);
+                if (op == 0 || keys.isEmpty()) {
+                    int u = rand.nextInt(n), v = rand.nextInt(n);
+                    if (u == v) continue;
+                    String a = String.valueOf(Math.min(u, v)), b = String.valueOf(Math.max(u, v));
+                    double w = rand.nextInt(100);
+                    // Inserting an existing pair keeps the lighter of the two weights.
+                    model.merge(a + "-" + b, new Edge(a, b, w), (old, nw) -> nw.getWeight() < old.getWeight() ? nw : old);
+                    batch.add(DynamicMST.Update.insert(a, b, w));
+                } else {
+                    Edge e = model.get(keys.get(rand.nextInt(keys.size())));
+                    if (op == 1) {
+                        model.remove(e.getU() + "-" + e.getV());
+                        batch.add(DynamicMST.Update.delete(e.getU(), e.getV()));
+                    } else {
+                        double w = rand.nextInt(100);
+                        model.put(e.getU() + "-" + e.getV(), new Edge(e.getU(), e.getV(), w));
+                        batch.add(DynamicMST.Update.weight(e.getU(), e.getV(), w));
+                    }
+                }
+            }
+            DynamicMST.Result res = dyn.apply(batch);
+            Graph current = new Graph(vertices, new ArrayList<>(model.values()));
+            KruskalMST.Result full = KruskalMST.computeIndexed(current);
+            assertEquals(full.totalCost, res.totalCost, 1e-6, "round " + round);
+            assertEquals(full.mstEdges.size(), res.mstEdges.size());
+            assertFalse(new Graph(vertices, res.mstEdges).hasCycle());
+            assertEquals(batch.size(), res.ops.get("inserts") + res.ops.get("deletes") + res.ops.get("weight_updates"));
+        }
+        assertTrue(dyn.ops().get("path_searches") > 0);
+
+        DynamicMST small = new DynamicMST(smallGraph);
+        Edge first = smallGraph.getEdges().get(0);
+        double cost = small.totalCost();
+        DynamicMST.Result heavier = small.apply(Collections.singletonList(
+                DynamicMST.Update.insert(first.getU(), first.getV(), first.getWeight() + 100)));
+        assertEquals(cost, heavier.totalCost, 1e-9);
+        assertEquals(1L, heavier.ops.get("inserts"));
+        assertEquals(0L, heavier.ops.get("weight_updates"));
+    }
+
+    @Test
+    @DisplayName("Result cache reuses results by content hash")
+    void testResultCache(@TempDir Path dir) throws IOException {
+        GraphReader.Entry entry;
+        try (GraphReader reader = GraphReader.open(Paths.get("data/assign_3_input_small.json"))) {
+            entry = reader.next();
+        }
+        String key = ResultCache.key(entry.graph);
+        assertEquals(key, ResultCache.key(new Graph(entry.graph.getVertices(), entry.graph.getEdges())));
+        List<Edge> reweighted = new ArrayList<>(entry.graph.getEdges());
+        Edge first = reweighted.get(0);
+        reweighted.set(0, new Edge(first.getU(), first.getV(), first.getWeight() + 1));
+        assertNotEquals(key, ResultCache.key(new Graph(entry.graph.getVertices(), reweighted)));
+
+        ResultCache cache = new ResultCache(1 << 20, dir);
+        Runner.Solved solved = Runner.solve(entry, cache);
+        assertSame(solved.kruskal, cache.get(key, "renamed").kruskal);
+        assertEquals("renamed", cache.get(key, "renamed").name);
+
+        // A hit is marked as such, with its own lookup time next to the original run's timings.
+        Runner.Solved hit = Runner.solve(entry, cache);
+        assertFalse(solved.cached);
+        assertTrue(hit.cached);
+        StringWriter json = new StringWriter();
+        StringWriter csv = new StringWriter();
+        try (ResultWriter w = new ResultWriter(json, csv, false)) {
+            Runner.writeBlock(w, solved);
+            Runner.writeBlock(w, hit);
+        }
+        JsonArray blocks = JsonParser.parseString(json.toString()).getAsJsonObject().getAsJsonArray("datasets");
+        assertNull(blocks.get(0).getAsJsonObject().get("cached"));
+        assertTrue(blocks.get(1).getAsJsonObject().get("cached").getAsBoolean());
+        assertNotNull(blocks.get(1).getAsJsonObject().get("lookup_ms"));
+        String nl = System.lineSeparator();
+        assertTrue(csv.toString().startsWith("name,V,E,prim_cost,kruskal_cost,prim_time_ms,kruskal_time_ms,prim_ops,kr_ops,cached" + nl));
+        assertTrue(csv.toString().contains(",false" + nl));
+        assertTrue(csv.toString().endsWith(",true" + nl));
+
+        Runner.Solved fromDisk = new ResultCache(1 << 20, dir).get(key, entry.name);
+        assertNotNull(fromDisk);
+        assertEquals(solved.prim.mstEdges, fromDisk.prim.mstEdges);
+        assertEquals(solved.kruskal.ops, fromDisk.kruskal.ops);
+        assertEquals(solved.primCheck.valid(), fromDisk.primCheck.valid());
+        assertEquals(solved.kruskalCheck.minimal, fromDisk.kruskalCheck.minimal);
+
+        ResultCache tiny = new ResultCache(2000, null);
+        tiny.put("a", solved);
+        tiny.put("b", solved);
+        assertNull(tiny.get("a", "a"));
+        assertEquals(1L, tiny.stats().get("evictions"));
+    }
+
+    @Test
+    @DisplayName("Verifier separates spanning, acyclic and minimal")
+    void testMstVerifier() {
+        MstVerifier.Result ok = MstVerifier.verify(smallGraph, KruskalMST.compute(smallGraph).mstEdges);
+        assertTrue(ok.valid());
+        assertEquals(1, ok.treeComponents);
+
+        MstVerifier.Result heavy = MstVerifier.verify(smallGraph, Arrays.asList(
+                new Edge("1", "2", 1), new Edge("1", "3", 3), new Edge("3", "4", 4)));
+        assertTrue(heavy.spanning);
+        assertTrue(heavy.acyclic);
+        assertFalse(heavy.minimal);
+
+        MstVerifier.Result cyclic = MstVerifier.verify(smallGraph, Arrays.asList(
+                new Edge("1", "2", 1), new Edge("2", "3", 2), new Edge("1", "3", 3)));
+        assertFalse(cyclic.acyclic);
+        assertFalse(cyclic.spanning);
+        assertFalse(cyclic.valid());
+
+        MstVerifier.Result foreign = MstVerifier.verify(smallGraph, Arrays.asList(
+                new Edge("1", "2", 1), new Edge("2", "3", 2), new Edge("2", "4", 1)));
+        assertFalse(foreign.spanning);
+        assertFalse(foreign.minimal);
+
+        Graph forest = new Graph(Arrays.asList("a", "b", "c", "d"),
+                Arrays.asList(new Edge("a", "b", 2), new Edge("a", "b", 1), new Edge("c", "d", 5)));
+        MstVerifier.Result msf = MstVerifier.verify(forest, Arrays.asList(new Edge("a", "b", 1), new Edge("c", "d", 5)));
+        assertFalse(msf.spanning);
+        assertTrue(msf.minimal);
+        assertEquals(2, msf.graphComponents);
+    }
+
+    @Test
+    @DisplayName("Spanning forest solves every component of a disconnected graph")
+    void testSpanningForest(@TempDir Path dir) throws IOException {
+        GraphGenerator gen = new GraphGenerator(GraphGenerator.Family.FOREST, 600, 2400, 5).components(7);
+        StringWriter text = new StringWriter();
+        gen.write(text, 1, false);
+        GraphReader.Entry entry;
+        try (GraphReader reader = new GraphReader(new StringReader(text.toString()), "forest")) {
+            entry = reader.next();
+        }
+        Graph g = entry.graph;
+        Components comps = Components.of(g.csr(), new ForkJoinPool(4));
+        assertEquals(7, comps.count());
+        assertEquals(g.csr().componentCount(), Components.of(g.csr()).count());
+        assertFalse(g.isConnected());
+        assertTrue(smallGraph.isConnected());
+
+        KruskalMST.Result kr = KruskalMST.computeIndexed(g);
+        for (ForkJoinPool pool : Arrays.asList(new ForkJoinPool(1), new ForkJoinPool(4))) {
+            SpanningForest.Result forest = SpanningForest.compute(g, pool);
+            assertEquals(kr.totalCost, forest.totalCost, 1e-6);
+            assertEquals(g.V() - 7, forest.mstEdges.size());
+            assertEquals(7, forest.components.size());
+            int vertices = 0;
+            double cost = 0;
+            for (SpanningForest.Component c : forest.components) {
+                vertices += c.vertices;
+                cost += c.totalCost;
+                assertEquals(c.vertices - 1, c.treeEdges);
+            }
+            assertEquals(g.V(), vertices);
+            assertEquals(forest.totalCost, cost, 1e-6);
+            assertTrue(MstVerifier.verify(g, forest.mstEdges).validForest());
+        }
+
+        // Thousands of tiny components, with enough edges for the parallel sort.
+        StringWriter many = new StringWriter();
+        new GraphGenerator(GraphGenerator.Family.FOREST, 12_000, 40_000, 8).components(3000).write(many, 1, false);
+        Graph tiny;
+        try (GraphReader reader = new GraphReader(new StringReader(many.toString()), "tiny")) {
+            tiny = reader.next().graph;
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            SpanningForest.Result forest = SpanningForest.compute(tiny, pool);
+            assertEquals(3000, forest.components.size());
+            assertEquals(tiny.V() - 3000, forest.mstEdges.size());
+            assertEquals(1L, (long) forest.ops.get("sort_parallel"));
+            assertEquals(KruskalMST.computeIndexed(tiny).totalCost, forest.totalCost, 1e-6);
+            assertTrue(MstVerifier.verify(tiny, forest.mstEdges).validForest());
+        } finally {
+            pool.shutdown();
+        }
+
+        Runner.Solved solved = Runner.solve(entry, new ResultCache(1 << 20, dir), true);
+        assertFalse(solved.kruskalCheck.valid());
+        assertTrue(solved.kruskalCheck.validForest());
+        Runner.Solved fromDisk = new ResultCache(1 << 20, dir).get(ResultCache.key(g) + "-forest", "forest");
+        assertEquals(solved.forest.totalCost, fromDisk.forest.totalCost, 1e-9);
+        assertEquals(solved.forest.components.size(), fromDisk.forest.components.size());
+
+        StringWriter json = new StringWriter();
+        try (ResultWriter out = new ResultWriter(json, new StringWriter(), false)) {
+            Runner.write(out, solved);
+        }
+        JsonObject block = JsonParser.parseString(json.toString()).getAsJsonObject()
+                .getAsJsonArray("datasets").get(0).getAsJsonObject();
+        assertTrue(block.getAsJsonObject("kruskal").get("valid").getAsBoolean());
+        assertEquals(7, block.getAsJsonObject("forest").getAsJsonArray("components").size());
+    }
+
+    @Test
+    @DisplayName("Metrics histograms, counters and exporters")
+    void testMetrics() throws IOException {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) h.recordNanos(v * 1000);
+        assertEquals(100_000, h.count());
+        assertEquals(1000, h.minNanos());
+        assertEquals(100_000_000L, h.maxNanos());
+        assertEquals(50_000_000.0, h.quantileNanos(0.5), 50_000_000 * 0.04);
+        assertEquals(99_000_000.0, h.quantileNanos(0.99), 99_000_000 * 0.04);
+        for (long v : new long[]{0, 63, 64, 1000, Long.MAX_VALUE}) {
+            assertTrue(LatencyHistogram.upperBound(LatencyHistogram.bucket(v)) >= v);
+        }
+
+        Metrics metrics = new Metrics();
+        Map<String, Long> ops = new LinkedHashMap<>();
+        ops.put("find_calls", 10L);
+        metrics.recordRun("kruskal", ops, 1.5);
+        metrics.recordRun("kruskal", ops, 2.5);
+        metrics.recordPhase(Metrics.Phase.SORT, 0, 2_000_000);
+        assertEquals(20L, metrics.counter("kruskal_find_calls_total").sum());
+        assertEquals(2L, metrics.histogram("kruskal_run").count());
+
+        StringWriter json = new StringWriter();
+        metrics.writeJson(json);
+        JsonObject parsed = JsonParser.parseString(json.toString()).getAsJsonObject();
+        assertEquals(2, parsed.getAsJsonObject("counters").get("kruskal_runs_total").getAsInt());
+        assertEquals(1, parsed.getAsJsonObject("histograms").getAsJsonObject("phase_sort").get("count").getAsInt());
+
+        try (MetricsServer server = new MetricsServer(metrics, 0)) {
+            URL url = new URL("http://localhost:" + server.port() + "/metrics");
+            String body;
+            try (InputStream in = url.openStream()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertTrue(body.contains("# TYPE mst_kruskal_find_calls_total counter"));
+            assertTrue(body.contains("mst_kruskal_find_calls_total 20"));
+            assertTrue(body.contains("mst_phase_sort_seconds_count 1"));
+        }
+    }
+
+    @Test
+    @DisplayName("Off-heap edge store feeds radix Kruskal and Boruvka")
+    void testOffHeapEdgeStore(@TempDir Path dir) throws IOException {
+        GraphGenerator gen = new GraphGenerator(GraphGenerator.Family.SPARSE, 500, 3000, 17).maxWeight(40);
+        StringWriter text = new StringWriter();
+        gen.write(text, 1, false);
+        Graph g;
+        try (GraphReader reader = new GraphReader(new StringReader(text.toString()), "offheap")) {
+            g = reader.next().graph;
+        }
+        KruskalMST.Result expected = KruskalMST.computeIndexed(g);
+        CsrGraph csr = g.csr();
+
+        for (Path spill : Arrays.asList(null, dir)) {
+            try (OffHeapEdgeStore store = new OffHeapEdgeStore(csr.vertexCount(), spill, 6)) {
+                for (int e = 0; e < csr.edgeCount(); e++) store.add(csr.edgeU(e), csr.edgeV(e), csr.weight(e));
+                assertEquals(spill != null, store.isMapped());
+                OffHeapMST.Result r = OffHeapMST.kruskal(store);
+                assertEquals(expected.mstEdges, r.toEdges(csr::label));
+                assertEquals(expected.totalCost, r.totalCost, 1e-9);
+                assertTrue(r.ops.get("radix_passes") >= 1 && r.ops.get("radix_passes") <= 4);
+                for (long i = 1; i < store.size(); i++) assertTrue(store.weight(i - 1) <= store.weight(i));
+            }
+        }
+        try (DirectoryStream<Path> left = Files.newDirectoryStream(dir)) {
+            assertFalse(left.iterator().hasNext(), "spill files should be deleted on close");
+        }
+
+        for (ForkJoinPool pool : Arrays.asList(new ForkJoinPool(1), new ForkJoinPool(4))) {
+            try (OffHeapEdgeStore store = OffHeapEdgeStore.of(csr)) {
+                OffHeapMST.Result r = OffHeapMST.boruvka(store, pool);
+                assertEquals(expected.totalCost, r.totalCost, 1e-9);
+                assertEquals(csr.vertexCount() - 1, r.tree.size());
+                assertTrue(MstVerifier.verify(g, r.toEdges(csr::label)).valid());
+            }
+        }
+
+        assertTrue(Long.compareUnsigned(EdgeSort.sortableKey(-2.5), EdgeSort.sortableKey(-0.0)) < 0);
+        assertTrue(Long.compareUnsigned(EdgeSort.sortableKey(-0.0), EdgeSort.sortableKey(0.0)) < 0);
+        assertTrue(Long.compareUnsigned(EdgeSort.sortableKey(1.0), EdgeSort.sortableKey(1.5)) < 0);
+    }
+
+    @Test
+    @DisplayName("External Kruskal merges spilled runs into the same tree")
+    void testExternalKruskal(@TempDir Path dir) throws IOException {
+        GraphGenerator gen = new GraphGenerator(GraphGenerator.Family.SPARSE, 300, 2000, 23).maxWeight(25);
+        StringWriter text = new StringWriter();
+        gen.write(text, 1, false);
+        Graph g;
+        try (GraphReader reader = new GraphReader(new StringReader(text.toString()), "external")) {
+            g = reader.next().graph;
+        }
+        CsrGraph csr = g.csr();
+        KruskalMST.Result expected = KruskalMST.computeIndexed(g);
+
+        for (int runEdges : new int[]{64, 700, 100_000}) {
+            OffHeapMST.Result r = new ExternalKruskal(dir, runEdges).compute(csr.vertexCount(), ExternalKruskal.cursor(csr));
+            assertEquals(expected.mstEdges, r.toEdges(csr::label), "runEdges=" + runEdges);
+            assertEquals(expected.totalCost, r.totalCost, 1e-9);
+            assertEquals(runEdges >= 2000 ? 0L : (2000 + runEdges - 1) / runEdges, (long) r.ops.get("runs"));
+            assertEquals(1L, (long) r.ops.get("early_stop"));
+            assertTrue(r.ops.get("edge_considered") < 2000);
+            r.tree.close();
+        }
+        try (DirectoryStream<Path> left = Files.newDirectoryStream(dir)) {
+            assertFalse(left.iterator().hasNext(), "run files should be deleted");
+        }
+
+        // Three copies of the edges span several read buffers; the first copy wins every tie, so the tree is unchanged.
+        Path raw = dir.resolve("edges.mste");
+        try (RawEdgeFile.Writer w = new RawEdgeFile.Writer(raw, csr.vertexCount())) {
+            for (int copy = 0; copy < 3; copy++) {
+                for (int e = 0; e < csr.edgeCount(); e++) w.add(csr.edgeU(e), csr.edgeV(e), csr.weight(e));
+            }
+        }
+        assertTrue(RawEdgeFile.isRawEdgeFile(raw));
+        try (RawEdgeFile.Cursor edges = RawEdgeFile.open(raw)) {
+            assertEquals(6000L, edges.edgeCount());
+            OffHeapMST.Result r = new ExternalKruskal(dir, 1000).compute(edges.vertexCount(), edges);
+            assertEquals(expected.mstEdges, r.toEdges(csr::label));
+            r.tree.close();
+        }
+        try (RawEdgeFile.Cursor edges = RawEdgeFile.open(raw, 4000, 4003)) {
+            for (int e = 0; e < 3; e++) {
+                assertTrue(edges.advance());
+                assertEquals(csr.edgeU(e), edges.u());
+                assertEquals(csr.weight(e), edges.weight(), 0.0);
+            }
+            assertFalse(edges.advance());
+        }
+    }
+
+    @Test
+    @DisplayName("Adaptive edge sort picks counting, radix or comparison and keeps the (weight, index) order")
+    void testAdaptiveEdgeSort() {
+        Random rnd = new Random(42);
+        int n = 5000;
+        double[] small = new double[n];
+        double[] spread = new double[n];
+        double[] arbitrary = new double[n];
+        for (int i = 0; i < n; i++) {
+            small[i] = 1 + rnd.nextInt(50);
+            spread[i] = 1000.0 * rnd.nextInt(300);
+            arbitrary[i] = rnd.nextDouble() * 100 - 50;
+        }
+        double[][] inputs = {small, spread, arbitrary};
+        EdgeSort.Strategy[] expected = {EdgeSort.Strategy.COUNTING, EdgeSort.Strategy.RADIX, EdgeSort.Strategy.COMPARISON};
+        for (int k = 0; k < inputs.length; k++) {
+            int[] want = EdgeSort.identity(n);
+            EdgeSort.sort(want, 0, n, inputs[k]);
+            int[] got = EdgeSort.identity(n);
+            assertEquals(expected[k], EdgeSort.sortAdaptive(got, 0, n, inputs[k]));
+            assertArrayEquals(want, got);
+        }
+
+        double[] signedZero = small.clone();
+        signedZero[7] = -0.0;
+        signedZero[8] = 0.0;
+        int[] want = EdgeSort.identity(n);
+        EdgeSort.sort(want, 0, n, signedZero);
+        int[] got = EdgeSort.identity(n);
+        assertNotEquals(EdgeSort.Strategy.COUNTING, EdgeSort.sortAdaptive(got, 0, n, signedZero));
+        assertArrayEquals(want, got);
+
+        KruskalMST.Result kr = KruskalMST.compute(smallGraph);
+        assertEquals(1L, kr.ops.get("sort_comparison"));
+    }
+
+    @Test
+    @DisplayName("Batch solver reproduces the classic engines with reused scratch")
+    void testBatchSolver() throws IOException {
+        List<GraphReader.Entry> batch = new ArrayList<>();
+        long seed = 1;
+        for (GraphGenerator.Family family : GraphGenerator.Family.values()) {
+            GraphGenerator gen = new GraphGenerator(family, 40, 120, seed++).maxWeight(10);
+            if (family == GraphGenerator.Family.FOREST) gen.components(3);
+            StringWriter text = new StringWriter();
+            gen.write(text, 4, false);
+            try (GraphReader reader = new GraphReader(new StringReader(text.toString()), family.name())) {
+                GraphReader.Entry entry;
+                while ((entry = reader.next()) != null) batch.add(entry);
+            }
+        }
+        batch.add(new GraphReader.Entry("small", smallGraph));
+        batch.add(new GraphReader.Entry("empty", new Graph(Collections.emptyList(), Collections.emptyList())));
+
+        for (GraphReader.Entry entry : batch) {
+            PrimMST.Result p = PrimMST.compute(entry.graph);
+            PrimMST.Result bp = BatchSolver.prim(entry.graph);
+            assertEquals(p.mstEdges, bp.mstEdges, entry.name);
+            assertEquals(p.ops, bp.ops, entry.name);
+            assertEquals(p.totalCost, bp.totalCost, 0.0);
+
+            KruskalMST.Result k = KruskalMST.compute(entry.graph);
+            KruskalMST.Result bk = BatchSolver.kruskal(entry.graph);
+            assertEquals(k.mstEdges, bk.mstEdges, entry.name);
+            assertEquals(k.ops, bk.ops, entry.name);
+            assertEquals(k.totalCost, bk.totalCost, 0.0);
+        }
+
+        List<Runner.Solved> sequential = new ArrayList<>();
+        for (GraphReader.Entry entry : batch) sequential.add(Runner.solve(entry));
+        List<Graph> graphs = new ArrayList<>();
+        for (GraphReader.Entry entry : batch) graphs.add(entry.graph);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Runner.Solved> parallel = BatchSolver.solveAll(batch, pool);
+            assertEquals(batch.size(), parallel.size());
+            for (int i = 0; i < batch.size(); i++) {
+                assertEquals(batch.get(i).name, parallel.get(i).name);
+                assertEquals(sequential.get(i).kruskal.mstEdges, parallel.get(i).kruskal.mstEdges);
+                assertEquals(sequential.get(i).prim.ops, parallel.get(i).prim.ops);
+            }
+
+            List<KruskalMST.Result> kruskal = BatchSolver.kruskalAll(graphs, pool);
+            List<PrimMST.Result> prim = BatchSolver.primAll(graphs, pool);
+            for (int i = 0; i < graphs.size(); i++) {
+                assertEquals(sequential.get(i).kruskal.mstEdges, kruskal.get(i).mstEdges);
+                assertEquals(sequential.get(i).prim.totalCost, prim.get(i).totalCost, 0.0);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Headless renderer writes tiled PNGs and streamed SVG with level of detail")
+    void testGraphRenderer(@TempDir Path dir) throws IOException {
+        Path input = dir.resolve("graphs.json");
+        try (java.io.Writer out = Files.newBufferedWriter(input)) {
+            new GraphGenerator(GraphGenerator.Family.SPARSE, 300, 2000, 5).maxWeight(50).write(out, 3, false);
+        }
+        GraphRenderer.Options png = new GraphRenderer.Options().size(600, 400).tileSize(256);
+        List<Path> tiles = GraphRenderer.renderFile(input, false, dir.resolve("png"), png, 3);
+        assertEquals(3 * 6, tiles.size());
+        java.awt.image.BufferedImage corner = javax.imageio.ImageIO.read(tiles.get(5).toFile());
+        assertEquals(600 - 2 * 256, corner.getWidth());
+        assertEquals(400 - 256, corner.getHeight());
+
+        Graph g;
+        try (GraphReader reader = GraphReader.open(input)) {
+            g = reader.next().graph;
+        }
+        List<Edge> mst = KruskalMST.compute(g).mstEdges;
+        int[] tree = GraphRenderer.treeEdges(g.csr(), mst);
+        for (int i = 0; i < tree.length; i++) assertEquals(mst.get(i).getWeight(), g.csr().weight(tree[i]), 0.0);
+
+        GraphRenderer.Scene sampled = GraphRenderer.scene("g", g, mst, new GraphRenderer.Options().maxEdges(100));
+        assertEquals(mst.size() + 100, sampled.drawnEdges());
+        GraphRenderer.Scene treeOnly = GraphRenderer.scene("g", g, mst, new GraphRenderer.Options().mstOnly(true));
+        assertEquals(mst.size(), treeOnly.drawnEdges());
+        StringWriter svg = new StringWriter();
+        treeOnly.writeSvg(svg);
+        String text = svg.toString();
+        assertTrue(text.startsWith("<svg") && text.trim().endsWith("</svg>"));
+        assertFalse(text.contains("#c0c0c0"));
+        assertEquals(g.V(), text.split("<circle ", -1).length - 1);
+        assertEquals(1, text.split("<text ", -1).length - 1, "labels are skipped above the threshold");
+
+        GraphRenderer.Scene small = GraphRenderer.scene("a<b", smallGraph, KruskalMST.compute(smallGraph).mstEdges,
+                new GraphRenderer.Options());
+        StringWriter smallSvg = new StringWriter();
+        small.writeSvg(smallSvg);
+        assertTrue(smallSvg.toString().contains("a&lt;b"));
+        assertEquals(1 + smallGraph.V() + smallGraph.E(), smallSvg.toString().split("<text ", -1).length - 1);
+
+        List<Path> svgs = GraphRenderer.renderFile(input, false, dir.resolve("svg"), new GraphRenderer.Options().svg(true), 2);
+        assertEquals(3, svgs.size());
+        for (Path p : svgs) assertTrue(Files.size(p) > 0);
+    }
+
+    @Test
+    @DisplayName("Barnes-Hut force layout is deterministic, shortens tree edges and caches per graph id")
+    void testForceLayout(@TempDir Path dir) throws IOException {
+        StringWriter text = new StringWriter();
+        new GraphGenerator(GraphGenerator.Family.GRID, 400, 760, 3).maxWeight(20).write(text, 1, false);
+        Graph g;
+        try (GraphReader reader = new GraphReader(new StringReader(text.toString()), "grid")) {
+            g = reader.next().graph;
+        }
+        CsrGraph csr = g.csr();
+        int[] tree = GraphRenderer.treeEdges(csr, KruskalMST.compute(g).mstEdges);
+
+        ForceLayout.Options opts = new ForceLayout.Options().iterations(60);
+        ForceLayout.Layout a = new ForceLayout(opts).compute(csr, tree);
+        ForceLayout.Layout b;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            b = new ForceLayout(opts, pool).compute(csr, tree);
+        } finally {
+            pool.shutdown();
+        }
+        assertArrayEquals(a.x, b.x);
+        assertArrayEquals(a.y, b.y);
+        for (int i = 0; i < csr.vertexCount(); i++) assertTrue(Float.isFinite(a.x[i]) && Float.isFinite(a.y[i]));
+
+        // Neighbours end up much closer together than arbitrary vertex pairs.
+        double edgeLen = 0, pairLen = 0;
+        for (int e = 0; e < csr.edgeCount(); e++) {
+            edgeLen += Math.hypot(a.x[csr.edgeU(e)] - a.x[csr.edgeV(e)], a.y[csr.edgeU(e)] - a.y[csr.edgeV(e)]);
+        }
+        Random rand = new Random(1);
+        for (int i = 0; i < csr.edgeCount(); i++) {
+            int u = rand.nextInt(csr.vertexCount()), v = rand.nextInt(csr.vertexCount());
+            pairLen += Math.hypot(a.x[u] - a.x[v], a.y[u] - a.y[v]);
+        }
+        assertTrue(edgeLen * 3 < pairLen, edgeLen + " vs " + pairLen);
+
+        LayoutCache cache = new LayoutCache(dir);
+        ForceLayout engine = new ForceLayout(opts);
+        assertArrayEquals(a.x, cache.get("grid_1", csr, tree, engine).x);
+        assertSame(cache.get("grid_1", csr, tree, engine), cache.get("grid_1", csr, tree, engine));
+        ForceLayout.Layout fromDisk = new LayoutCache(dir).get("grid_1", csr, tree, engine);
+        assertArrayEquals(a.y, fromDisk.y);
+        cache.get("grid_1", csr, tree, new ForceLayout(new ForceLayout.Options().iterations(5)));
+
+        // Same vertex and edge counts with one weight changed must not reuse the layout.
+        String[] labels = new String[csr.vertexCount()];
+        for (int i = 0; i < labels.length; i++) labels[i] = csr.label(i);
+        int[] us = new int[csr.edgeCount()], vs = new int[csr.edgeCount()];
+        double[] ws = new double[csr.edgeCount()];
+        for (int e = 0; e < ws.length; e++) {
+            us[e] = csr.edgeU(e);
+            vs[e] = csr.edgeV(e);
+            ws[e] = csr.weight(e);
+        }
+        ws[0] += 1000;
+        CsrGraph edited = new CsrGraph(labels, us, vs, ws);
+        assertNotSame(fromDisk, cache.get("grid_1", edited, tree, engine));
+        Map<String, Long> stats = cache.stats();
+        assertEquals(2L, stats.get("hits"));
+        assertEquals(3L, stats.get("misses"));
+
+        // Memory keeps only the most recently used layouts.
+        LayoutCache small = new LayoutCache(null, 1);
+        small.get("grid_1", csr, tree, engine);
+        small.get("grid_2", csr, tree, engine);
+        assertEquals(1L, small.stats().get("evictions"));
+        assertEquals(1L, small.stats().get("entries"));
+
+        // Above forceMaxEdges a graph falls back to the circle.
+        GraphRenderer.Options auto = new GraphRenderer.Options().layout(opts).forceMaxEdges(csr.edgeCount() - 1);
+        assertNull(auto.layoutFor(csr));
+        assertSame(opts, auto.forceMaxEdges(csr.edgeCount()).layoutFor(csr));
+    }
+
+    @Test
+    @DisplayName("Euclidean MST over a k-d tree matches Kruskal on the complete graph")
+    void testEuclideanMST() throws IOException {
+        Random rand = new Random(11);
+        for (int dims = 1; dims <= 3; dims++) {
+            // Integer coordinates on a small range force many equal-length edges and some duplicate points.
+            for (boolean grid : new boolean[]{false, true}) {
+                int n = 250;
+                double[] coords = new double[n * dims];
+                for (int i = 0; i < coords.length; i++) coords[i] = grid ? rand.nextInt(12) : rand.nextDouble() * 100;
+                PointSet points = new PointSet(dims, coords, n, 0);
+
+                List<String> vertices = new ArrayList<>();
+                for (int i = 0; i < n; i++) vertices.add(String.valueOf(i));
+                List<Edge> complete = new ArrayList<>();
+                for (int a = 0; a < n; a++) {
+                    for (int b = a + 1; b < n; b++) complete.add(new Edge(vertices.get(a), vertices.get(b), points.distance(a, b)));
+                }
+                Graph g = new Graph(vertices, complete);
+                KruskalMST.Result expected = KruskalMST.compute(g);
+
+                EuclideanMST.Result exact = EuclideanMST.compute(points, vertices::get);
+                assertEquals(n - 1, exact.mstEdges.size());
+                assertEquals(expected.totalCost, exact.totalCost, 1e-6);
+                assertTrue(MstVerifier.verify(g, exact.mstEdges).valid(), "dims=" + dims + " grid=" + grid);
+
+                ForkJoinPool pool = new ForkJoinPool(4);
+                try {
+                    EuclideanMST.Result parallel = EuclideanMST.compute(points, vertices::get, 0, pool);
+                    assertEquals(exact.mstEdges, parallel.mstEdges);
+
+                    EuclideanMST.Result approx = EuclideanMST.compute(points, vertices::get, 0.5, pool);
+                    assertEquals(n - 1, approx.mstEdges.size());
+                    assertTrue(MstVerifier.verify(g, approx.mstEdges).spanning);
+                    assertTrue(approx.totalCost <= 1.5 * exact.totalCost + 1e-9);
+                    assertTrue(approx.totalCost >= exact.totalCost - 1e-9);
+                    assertEquals(1L, approx.ops.get("approximate"));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+
+        String json = "{\"graphs\": [{\"id\": 7, \"vertices\": [10, 20, 30, 40], \"points\": [[0, 0], [3, 0], [3, 4], [10, 4]]},"
+                + " {\"id\": 8, \"points\": [[0], [2], [5]], \"epsilon\": 0.25}]}";
+        List<GraphReader.Entry> entries = new ArrayList<>();
+        try (GraphReader reader = new GraphReader(new StringReader(json), "points")) {
+            GraphReader.Entry e;
+            while ((e = reader.next()) != null) entries.add(e);
+        }
+        assertEquals(2, entries.get(0).points.dims);
+        assertEquals(0, entries.get(0).graph.E());
+        assertEquals(0.25, entries.get(1).points.epsilon, 0.0);
+
+        StringWriter out = new StringWriter();
+        StringWriter csv = new StringWriter();
+        try (ResultWriter w = new ResultWriter(out, csv, false)) {
+            for (GraphReader.Entry e : entries) Runner.write(w, Runner.solve(e, new ResultCache(1 << 20, null)));
+        }
+        JsonObject ds = JsonParser.parseString(out.toString()).getAsJsonObject().getAsJsonArray("datasets").get(0).getAsJsonObject();
+        JsonObject eu = ds.getAsJsonObject("euclidean");
+        assertNull(ds.get("prim"));
+        assertEquals(3 + 4 + 7, eu.get("total_cost").getAsDouble(), 1e-9);
+        assertEquals("10", eu.getAsJsonArray("mst_edges").get(0).getAsJsonArray().get(0).getAsString());
+        assertTrue(eu.get("valid").getAsBoolean());
+        assertTrue(csv.toString().contains("graph_7,4,0,,14.0,"));
+
+        String ragged = "[{\"id\": 1, \"points\": [[0, 0], [1]]}]";
+        try (GraphReader reader = new GraphReader(new StringReader(ragged), "ragged")) {
+            assertThrows(IllegalStateException.class, reader::next);
+        }
+    }
+
+    @Test
+    @DisplayName("Sharded Kruskal across worker processes matches indexed Kruskal")
+    void testShardedMST(@TempDir Path dir) throws IOException {
+        Path json = dir.resolve("sharded.json");
+        try (Writer w = Files.newBufferedWriter(json)) {
+            new GraphGenerator(GraphGenerator.Family.FOREST, 400, 3000, 31).components(3).maxWeight(20).write(w, 2, false);
+        }
+        Path bin = dir.resolve("sharded.mstg");
+        BinaryGraphFile.convert(json, bin);
+
+        try (ShardCoordinator coordinator = new ShardCoordinator(3, 250, "64m");
+             BinaryGraphFile.Reader reader = BinaryGraphFile.open(bin)) {
+            BinaryGraphFile.MappedGraph g;
+            for (int ordinal = 0; (g = reader.nextMapped()) != null; ordinal++) {
+                Graph graph = g.toGraph();
+                KruskalMST.Result expected = KruskalMST.computeIndexed(graph);
+                OffHeapMST.Result r = coordinator.compute(bin, ordinal, g.vertexCount, g.edgeCount);
+                assertEquals(expected.mstEdges, r.toEdges(graph.csr()::label), g.name);
+                assertEquals(expected.totalCost, r.totalCost, 1e-9);
+                assertEquals((g.edgeCount + 249) / 250L, (long) r.ops.get("shards"));
+                assertEquals(r.ops.get("shards") - 1, (long) r.ops.get("merges"));
+                r.tree.close();
+            }
+            // The same graph as a raw edge file, sharded by long offsets and streamed by the workers.
+            Path raw = dir.resolve("sharded.mste");
+            Graph first;
+            try (BinaryGraphFile.Reader again = BinaryGraphFile.open(bin)) {
+                BinaryGraphFile.MappedGraph g0 = again.nextMapped();
+                RawEdgeFile.convert(g0, raw);
+                first = g0.toGraph();
+            }
+            OffHeapMST.Result fromRaw = coordinator.compute(raw);
+            assertEquals(KruskalMST.computeIndexed(first).mstEdges, fromRaw.toEdges(first.csr()::label));
+            fromRaw.tree.close();
+
+            assertThrows(IOException.class, () -> coordinator.compute(bin, 5, 400, 3000));
+            // A failed request leaves the workers usable.
+            assertEquals(0L, coordinator.compute(bin, 0, 400, 0).tree.size());
+        }
+    }
+
+    @Test
+    @DisplayName("MST server streams dataset blocks, batches graphs and sheds load when full")
+    void testMstServer() throws IOException, InterruptedException {
+        StringWriter text = new StringWriter();
+        new GraphGenerator(GraphGenerator.Family.SPARSE, 60, 240, 9).maxWeight(15).write(text, 5, false);
+        List<GraphReader.Entry> entries = new ArrayList<>();
+        try (GraphReader reader = new GraphReader(new StringReader(text.toString()), "server")) {
+            GraphReader.Entry e;
+            while ((e = reader.next()) != null) entries.add(e);
+        }
+
+        long graphsBefore = Metrics.global().counter("server_graphs_total").sum();
+        // Each graph costs V + E + 1 = 301 queue units, so all 5 fit in 2000 and a 3000-vertex graph never does.
+        int units = 2000;
+        try (MstServer server = new MstServer(0, 2, units, 4, 2L * text.toString().length()).warmUp(2)) {
+            URL solve = new URL("http://localhost:" + server.port() + "/solve");
+            HttpURLConnection conn = post(solve, text.toString());
+            assertEquals(200, conn.getResponseCode());
+            JsonArray datasets;
+            try (InputStream in = conn.getInputStream()) {
+                datasets = JsonParser.parseString(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                        .getAsJsonObject().getAsJsonArray("datasets");
+            }
+            assertEquals(entries.size(), datasets.size());
+            for (int i = 0; i < entries.size(); i++) {
+                JsonObject block = datasets.get(i).getAsJsonObject();
+                KruskalMST.Result expected = KruskalMST.compute(entries.get(i).graph);
+                assertEquals(entries.get(i).name, block.get("id").getAsString());
+                assertEquals(expected.totalCost, block.getAsJsonObject("kruskal").get("total_cost").getAsDouble(), 1e-9);
+                assertEquals(expected.mstEdges.size(), block.getAsJsonObject("kruskal").getAsJsonArray("mst_edges").size());
+                assertTrue(block.getAsJsonObject("prim").get("valid").getAsBoolean());
+            }
+
+            assertEquals(400, post(solve, "{\"graphs\": [{\"id\": 1, \"edges\": [").getResponseCode());
+            assertEquals(413, post(solve, "[{\"id\": 1, \"n\": 3000}]").getResponseCode());
+            String padded = " ".repeat(2 * text.toString().length()) + text.toString();
+            assertEquals(413, post(solve, padded).getResponseCode());
+            assertEquals(413, post(solve, padded, true).getResponseCode(), "chunked bodies are cut off while streaming");
+
+            // Room for two graphs: they are admitted and solved, the third is shed and the request gets a 503.
+            server.admitted.acquire(units - 700);
+            HttpURLConnection full = post(solve, text.toString());
+            assertEquals(503, full.getResponseCode());
+            assertEquals("1", full.getHeaderField("Retry-After"));
+            for (int i = 0; i < 500 && server.admitted.availablePermits() < 700; i++) Thread.sleep(10);
+            assertEquals(700, server.admitted.availablePermits(), "admitted graphs return their units");
+            server.admitted.release(units - 700);
+            HttpURLConnection again = post(solve, text.toString());
+            try (InputStream in = again.getInputStream()) {
+                assertEquals(entries.size(), JsonParser.parseString(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                        .getAsJsonObject().getAsJsonArray("datasets").size());
+            }
+
+            assertEquals(graphsBefore + 10, Metrics.global().counter("server_graphs_total").sum());
+            assertTrue(Metrics.global().histogram("server_request").count() >= 2);
+            assertTrue(Metrics.global().counter("server_batches_total").sum() >= 4, "5 graphs need two batches of 4");
+            HttpURLConnection metrics = (HttpURLConnection) new URL("http://localhost:" + server.port() + "/metrics").openConnection();
+            try (InputStream in = metrics.getInputStream()) {
+                assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).contains("server_queue_wait"));
+            }
+        }
+    }
+
+    private static HttpURLConnection post(URL url, String body) throws IOException {
+        return post(url, body, false);
+    }
+
+    private static HttpURLConnection post(URL url, String body, boolean chunked) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestMethod("POST");
+        conn.setDoOutput(true);
+        if (chunked) conn.setChunkedStreamingMode(4096);
+        try (OutputStream out = conn.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return conn;
+    }
 }